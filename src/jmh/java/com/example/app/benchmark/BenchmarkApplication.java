@@ -0,0 +1,92 @@
+package com.example.app.benchmark;
+
+import com.example.app.AppApplication;
+import com.example.app.model.User;
+import com.example.app.service.PasswordService;
+import com.example.app.service.UserService;
+import com.example.app.util.ServicePasswordImportReader;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts the real application context on a private in-memory H2 database, so benchmarks
+ * exercise the same beans, proxies and Hibernate mappings as production.
+ */
+final class BenchmarkApplication {
+
+    static final String USERNAME = "bench";
+    static final String PASSWORD = "bench-password";
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Starts the application without a web server.
+     */
+    static ConfigurableApplicationContext start() {
+        return start(new SpringApplicationBuilder(AppApplication.class).web(WebApplicationType.NONE));
+    }
+
+    /**
+     * Runs {@code application} with the benchmark database and keystore; {@code args} are
+     * appended to (and so override) the benchmark settings.
+     */
+    static ConfigurableApplicationContext start(SpringApplicationBuilder application, String... args) {
+        Path keystore;
+        try {
+            keystore = Files.createTempDirectory("jmh-keys").resolve("master.p12");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // user_data_key has no entity, so ddl-auto cannot create it
+        String url = "jdbc:h2:mem:bench" + DATABASES.incrementAndGet()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"
+                + ";INIT=CREATE TABLE IF NOT EXISTS user_data_key(username VARCHAR(255) PRIMARY KEY, wrapped_key BYTEA NOT NULL)";
+
+        // Passed as arguments so they override application.properties
+        List<String> arguments = new ArrayList<>(Arrays.asList(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.flyway.enabled=false",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--app.crypto.keystore.path=" + keystore,
+                "--app.crypto.keystore.password=bench",
+                "--app.crypto.keystore.create-if-missing=true"));
+        arguments.addAll(Arrays.asList(args));
+        return application.run(arguments.toArray(new String[0]));
+    }
+
+    /**
+     * Registers {@link #USERNAME} and gives them a vault of {@code vaultSize} entries named
+     * {@code service0..service(n-1)}.
+     */
+    static void seed(ConfigurableApplicationContext context, int vaultSize) {
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setPassword(PASSWORD);
+        context.getBean(UserService.class).registerUser(user);
+
+        List<ServicePasswordImportReader.Row> rows = new ArrayList<>(vaultSize);
+        for (int i = 0; i < vaultSize; i++) {
+            rows.add(new ServicePasswordImportReader.Row(i + 1, "service" + i, "secret-" + i));
+        }
+        context.getBean(PasswordService.class).importPasswords(USERNAME, rows.iterator());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.app.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Delays every JDBC statement execution on the application's {@link DataSource}, so the
+ * in-memory database waits the way a networked Postgres would. The connection stays checked
+ * out of the pool for the whole delay.
+ */
+final class DatabaseLatency implements BeanPostProcessor {
+
+    private final long millis;
+
+    DatabaseLatency(long millis) {
+        this.millis = millis;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        // Only the routing DataSource the application uses; the pools behind it must keep their types
+        if (!(bean instanceof DataSource) || !"dataSource".equals(beanName)) {
+            return bean;
+        }
+        return proxy(DataSource.class, bean, (method, result) ->
+                result instanceof Connection ? proxy(Connection.class, result, this::delayStatements) : result);
+    }
+
+    private Object delayStatements(Method method, Object result) {
+        if (!(result instanceof Statement)) {
+            return result;
+        }
+        return proxy(method.getReturnType(), result, (m, r) -> r, this::delay);
+    }
+
+    private void delay(Method method) throws InterruptedException {
+        if (method.getName().startsWith("execute")) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private interface ResultMapper {
+        Object map(Method method, Object result);
+    }
+
+    private interface BeforeCall {
+        void run(Method method) throws Exception;
+    }
+
+    private static Object proxy(Class<?> type, Object target, ResultMapper results) {
+        return proxy(type, target, results, method -> { });
+    }
+
+    private static Object proxy(Class<?> type, Object target, ResultMapper results, BeforeCall before) {
+        return Proxy.newProxyInstance(DatabaseLatency.class.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            before.run(method);
+            try {
+                return results.map(method, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.app.benchmark;
+
+import com.example.app.util.Hex;
+import com.example.app.util.Sha256PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legacy SHA-256 hashing with a fresh {@code MessageDigest.getInstance} per call (the previous
+ * behaviour) against the per-thread instance Sha256PasswordHasher now reuses, at 1, 8 and 64
+ * concurrent threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MessageDigestReuseBenchmark {
+
+    private final Sha256PasswordHasher hasher = new Sha256PasswordHasher();
+
+    @Benchmark
+    @Threads(1)
+    public String getInstance_1() throws NoSuchAlgorithmException {
+        return newDigest();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String getInstance_8() throws NoSuchAlgorithmException {
+        return newDigest();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String getInstance_64() throws NoSuchAlgorithmException {
+        return newDigest();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String threadLocal_1() {
+        return hasher.hashPassword(BenchmarkApplication.PASSWORD);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String threadLocal_8() {
+        return hasher.hashPassword(BenchmarkApplication.PASSWORD);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String threadLocal_64() {
+        return hasher.hashPassword(BenchmarkApplication.PASSWORD);
+    }
+
+    // Same encoding as the hasher, so only the digest acquisition differs
+    private static String newDigest() throws NoSuchAlgorithmException {
+        return Hex.encode(MessageDigest.getInstance("SHA-256").digest(BenchmarkApplication.PASSWORD.getBytes(StandardCharsets.UTF_8)));
+    }
+}
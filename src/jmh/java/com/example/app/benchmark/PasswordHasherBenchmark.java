@@ -0,0 +1,67 @@
+package com.example.app.benchmark;
+
+import com.example.app.util.Argon2PasswordHasher;
+import com.example.app.util.PasswordHasher;
+import com.example.app.util.Pbkdf2PasswordHasher;
+import com.example.app.util.ScryptPasswordHasher;
+import com.example.app.util.Sha256PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one hash and one verification for each supported scheme, at the default
+ * production parameters from application.properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PasswordHasherBenchmark {
+
+    @Param({"sha256", Pbkdf2PasswordHasher.ALGORITHM_ID, ScryptPasswordHasher.ALGORITHM_ID, Argon2PasswordHasher.ALGORITHM_ID})
+    public String algorithm;
+
+    private PasswordHasher hasher;
+    private String storedHash;
+
+    @Setup
+    public void setUp() {
+        switch (algorithm) {
+            case Pbkdf2PasswordHasher.ALGORITHM_ID:
+                hasher = new Pbkdf2PasswordHasher(210_000);
+                break;
+            case ScryptPasswordHasher.ALGORITHM_ID:
+                hasher = new ScryptPasswordHasher(15, 8, 1);
+                break;
+            case Argon2PasswordHasher.ALGORITHM_ID:
+                hasher = new Argon2PasswordHasher(19_456, 2, 1);
+                break;
+            default:
+                hasher = new Sha256PasswordHasher();
+        }
+        storedHash = hasher.hashPassword(BenchmarkApplication.PASSWORD);
+    }
+
+    @Benchmark
+    public String hashPassword() {
+        return hasher.hashPassword(BenchmarkApplication.PASSWORD);
+    }
+
+    @Benchmark
+    public boolean validatePassword() {
+        return hasher.validatePassword(BenchmarkApplication.USERNAME, BenchmarkApplication.PASSWORD, storedHash);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.app.benchmark;
+
+import com.example.app.dto.ServiceSummary;
+import com.example.app.model.ServicePassword;
+import com.example.app.repository.ServicePasswordRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The vault queries behind the listing, lookup and paging endpoints, including entity
+ * mapping and secret decryption, against vaults of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ServicePasswordRepositoryBenchmark {
+
+    @Param({"100", "10000"})
+    public int vaultSize;
+
+    private ConfigurableApplicationContext context;
+    private ServicePasswordRepository repository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, vaultSize);
+        repository = context.getBean(ServicePasswordRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ServicePassword> findByUsername() {
+        return repository.findByUsername(BenchmarkApplication.USERNAME);
+    }
+
+    @Benchmark
+    public List<ServiceSummary> findSummariesByUsername() {
+        return repository.findSummariesByUsername(BenchmarkApplication.USERNAME);
+    }
+
+    @Benchmark
+    public Optional<ServicePassword> findByUsernameAndServiceName() {
+        String serviceName = "service" + ThreadLocalRandom.current().nextInt(vaultSize);
+        return repository.findByUsernameAndServiceName(BenchmarkApplication.USERNAME, serviceName);
+    }
+
+    @Benchmark
+    public List<ServicePassword> findFirstPage() {
+        return repository.findByUsernameAndIdGreaterThanOrderByIdAsc(BenchmarkApplication.USERNAME, 0L, PageRequest.of(0, 100));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.app.benchmark;
+
+import com.example.app.util.Sha256PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legacy SHA-256 verification: the previous hex-string implementation against the current
+ * byte-level path. Run with the gc profiler (the profile default) and compare
+ * gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class Sha256VerificationBenchmark {
+
+    private final Sha256PasswordHasher hasher = new Sha256PasswordHasher();
+    private String storedHash;
+
+    @Setup
+    public void setUp() {
+        storedHash = hasher.hashPassword(BenchmarkApplication.PASSWORD);
+    }
+
+    @Benchmark
+    public boolean validateHexString() throws NoSuchAlgorithmException {
+        return hexStringHash(BenchmarkApplication.PASSWORD).equals(storedHash);
+    }
+
+    @Benchmark
+    public boolean validateBytes() {
+        return hasher.validatePassword(BenchmarkApplication.USERNAME, BenchmarkApplication.PASSWORD, storedHash);
+    }
+
+    @Benchmark
+    public String hashHexString() throws NoSuchAlgorithmException {
+        return hexStringHash(BenchmarkApplication.PASSWORD);
+    }
+
+    @Benchmark
+    public String hashLookupTable() {
+        return hasher.hashPassword(BenchmarkApplication.PASSWORD);
+    }
+
+    // The implementation Sha256PasswordHasher used before, kept as the baseline
+    private static String hexStringHash(String password) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hashedBytes = digest.digest(password.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : hashedBytes) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) {
+                hexString.append('0');
+            }
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.app.benchmark;
+
+import com.example.app.service.CredentialCache;
+import com.example.app.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UserService#validateUser} through the Spring proxies: answered from the credential
+ * cache, verified against the database and hash, and rejected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class UserServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private CredentialCache credentialCache;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, 0);
+        userService = context.getBean(UserService.class);
+        credentialCache = context.getBean(CredentialCache.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean validateUserCached() {
+        return userService.validateUser(BenchmarkApplication.USERNAME, BenchmarkApplication.PASSWORD);
+    }
+
+    @Benchmark
+    public boolean validateUserUncached() {
+        credentialCache.invalidate(BenchmarkApplication.USERNAME);
+        return userService.validateUser(BenchmarkApplication.USERNAME, BenchmarkApplication.PASSWORD);
+    }
+
+    @Benchmark
+    public boolean validateUserWrongPassword() {
+        return userService.validateUser(BenchmarkApplication.USERNAME, "wrong-password");
+    }
+}
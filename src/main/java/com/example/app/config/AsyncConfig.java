@@ -0,0 +1,34 @@
+package com.example.app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+
+    @Value("${app.rehash.threads:2}")
+    private int rehashThreads;
+
+    @Value("${app.rehash.queue-capacity:1000}")
+    private int rehashQueueCapacity;
+
+    // Rehashing is opportunistic: when the queue is full the upgrade is dropped and retried on a later login
+    @Bean
+    public ThreadPoolTaskExecutor rehashExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(rehashThreads);
+        executor.setMaxPoolSize(rehashThreads);
+        executor.setQueueCapacity(rehashQueueCapacity);
+        executor.setThreadNamePrefix("rehash-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        return executor;
+    }
+}
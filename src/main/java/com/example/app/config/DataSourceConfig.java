@@ -0,0 +1,159 @@
+package com.example.app.config;
+
+import com.example.app.util.ReplicaDataSource;
+import com.example.app.util.ReplicaReadJpaDialect;
+import com.example.app.util.ReplicaReadRegionFactory;
+import com.example.app.util.SlowQueryLog;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+
+    @Value("${app.slow-query.threshold-ms:200}")
+    private long slowQueryThresholdMillis;
+
+    @Value("${app.slow-query.sample-rate:1.0}")
+    private double slowQuerySampleRate;
+
+    // Static so it is registered before the DataSource is created
+    @Bean
+    public static BeanPostProcessor connectionPoolSizer(Environment environment,
+                                                        @Value("${app.datasource.pool-size:0}") int poolSize) {
+        // Postgres' rule of thumb is 2 x cores + 1 active connections; more only queue inside the database
+        int size = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors() * 2 + 1;
+        // An explicit spring.datasource.hikari.maximum-pool-size, in any relaxed form, is left alone
+        boolean explicit = Binder.get(environment).bind("spring.datasource.hikari.maximum-pool-size", Integer.class).isBound();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (!explicit && bean instanceof HikariDataSource dataSource) {
+                    dataSource.setMaximumPoolSize(size);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Declared here rather than left to Boot so replica pools can copy its settings
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // Connections are only taken from a pool when the first statement runs: transactions served
+    // entirely from the second-level cache never take one, and read-only transactions have been
+    // marked read-only by then, so they can be sent to a replica
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ObjectProvider<ReplicaDataSource> replicaDataSource,
+                                 MeterRegistry meterRegistry) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        replicaDataSource.ifAvailable(dataSource::setReadOnlyDataSource);
+        if (slowQueryThresholdMillis <= 0) {
+            return dataSource;
+        }
+        return new SlowQueryLog(slowQueryThresholdMillis, slowQuerySampleRate, meterRegistry).wrap(dataSource);
+    }
+
+    // Lets the slow-query log name the Spring Data repository method behind a statement
+    @Bean
+    public static BeanPostProcessor repositoryMethodTracker() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+                    repositoryFactoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repository) -> proxyFactory.addAdvice(
+                                    new SlowQueryLog.RepositoryMethodInterceptor(repository.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Configuration
+    @ConditionalOnProperty("app.datasource.replica.urls")
+    static class ReplicaConfig {
+
+        // A replica that stops answering should fall back to the primary quickly
+        private static final long REPLICA_CONNECTION_TIMEOUT_MILLIS = 1000;
+
+        @Value("${app.datasource.replica.urls}")
+        private String[] urls;
+
+        @Value("${app.datasource.replica.max-lag-ms:1000}")
+        private long maxLagMillis;
+
+        @Value("${app.datasource.replica.check-interval-ms:1000}")
+        private long checkIntervalMillis;
+
+        @Value("${app.datasource.replica.lag-query}")
+        private String lagQuery;
+
+        @Bean(destroyMethod = "close")
+        public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource, MeterRegistry meterRegistry) {
+            List<HikariDataSource> replicas = new ArrayList<>();
+            for (int i = 0; i < urls.length; i++) {
+                HikariConfig config = new HikariConfig();
+                primaryDataSource.copyStateTo(config);
+                config.setJdbcUrl(urls[i].trim());
+                config.setPoolName(primaryDataSource.getPoolName() + "-replica-" + i);
+                config.setReadOnly(true);
+                config.setConnectionTimeout(Math.min(config.getConnectionTimeout(), REPLICA_CONNECTION_TIMEOUT_MILLIS));
+                config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+                replicas.add(new HikariDataSource(config));
+            }
+            return new ReplicaDataSource(primaryDataSource, replicas, lagQuery, maxLagMillis, checkIntervalMillis, meterRegistry);
+        }
+
+        // Applied after initialisation, where the transaction manager takes its dialect from the
+        // entity manager factory
+        @Bean
+        public static BeanPostProcessor replicaReadJpaDialect(
+                ObjectProvider<ReplicaDataSource> replicaDataSource,
+                @Value("${app.datasource.replica.cache-fill-max-lag-ms:0}") long cacheFillMaxLagMillis) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof JpaTransactionManager transactionManager) {
+                        transactionManager.setJpaDialect(
+                                new ReplicaReadJpaDialect(replicaDataSource.getObject(), cacheFillMaxLagMillis));
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        // Hibernate caches the natural id of every entity it loads, whatever the cache mode
+        @Bean
+        public HibernatePropertiesCustomizer replicaReadRegionFactory() {
+            return properties -> properties.put(AvailableSettings.CACHE_REGION_FACTORY, new ReplicaReadRegionFactory());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.app.config;
+
+import com.example.app.repository.UserDataKeyRepository;
+import com.example.app.util.MasterKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+
+@Configuration
+public class EncryptionConfig {
+
+    @Value("${app.crypto.keystore.path:vault-master-key.p12}")
+    private String keystorePath;
+
+    @Value("${app.crypto.keystore.password}")
+    private String keystorePassword;
+
+    @Value("${app.crypto.keystore.alias:vault-master}")
+    private String keyAlias;
+
+    @Value("${app.crypto.keystore.create-if-missing:false}")
+    private boolean createIfMissing;
+
+    // A missing keystore is never replaced silently: with data keys already stored, a new master
+    // key would leave every vault entry unreadable
+    @Bean
+    public MasterKey masterKey(UserDataKeyRepository userDataKeyRepository) throws IOException, GeneralSecurityException {
+        Path path = Paths.get(keystorePath);
+        if (Files.exists(path)) {
+            return MasterKey.load(path, keystorePassword.toCharArray(), keyAlias);
+        }
+        if (userDataKeyRepository.hasKeys()) {
+            throw new IllegalStateException("Keystore " + path.toAbsolutePath()
+                    + " is missing but user_data_key holds keys wrapped by it; restore the keystore");
+        }
+        if (!createIfMissing) {
+            throw new IllegalStateException("Keystore " + path.toAbsolutePath()
+                    + " does not exist; start once with app.crypto.keystore.create-if-missing=true to create a master key");
+        }
+        return MasterKey.create(path, keystorePassword.toCharArray(), keyAlias);
+    }
+}
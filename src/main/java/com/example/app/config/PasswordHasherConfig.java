@@ -0,0 +1,95 @@
+package com.example.app.config;
+
+import com.example.app.util.Argon2PasswordHasher;
+import com.example.app.util.BoundedPasswordHasher;
+import com.example.app.util.DelegatingPasswordHasher;
+import com.example.app.util.HashingExecutor;
+import com.example.app.util.PasswordHasher;
+import com.example.app.util.PasswordHasherCalibrator;
+import com.example.app.util.Pbkdf2PasswordHasher;
+import com.example.app.util.ScryptPasswordHasher;
+import com.example.app.util.Sha256PasswordHasher;
+import com.example.app.util.TunablePasswordHasher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PasswordHasherConfig {
+
+    @Value("${app.hasher.algorithm:" + Pbkdf2PasswordHasher.ALGORITHM_ID + "}")
+    private String algorithm;
+
+    @Value("${app.hasher.pbkdf2.iterations:210000}")
+    private int pbkdf2Iterations;
+
+    @Value("${app.hasher.scrypt.log2n:15}")
+    private int scryptLog2N;
+
+    @Value("${app.hasher.scrypt.block-size:8}")
+    private int scryptBlockSize;
+
+    @Value("${app.hasher.scrypt.parallelism:1}")
+    private int scryptParallelism;
+
+    @Value("${app.hasher.argon2.memory-kib:19456}")
+    private int argon2MemoryKiB;
+
+    @Value("${app.hasher.argon2.iterations:2}")
+    private int argon2Iterations;
+
+    @Value("${app.hasher.argon2.parallelism:1}")
+    private int argon2Parallelism;
+
+    @Value("${app.hasher.calibrate:false}")
+    private boolean calibrate;
+
+    @Value("${app.hasher.calibration.target-millis:50}")
+    private long calibrationTargetMillis;
+
+    @Value("${app.hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${app.hashing.queue-capacity:256}")
+    private int hashingQueueCapacity;
+
+    @Value("${app.hashing.max-wait-ms:2000}")
+    private long hashingMaxWaitMillis;
+
+    @Bean(destroyMethod = "shutdown")
+    public HashingExecutor hashingExecutor(MeterRegistry meterRegistry) {
+        // Hashing is CPU-bound, so by default use one worker per core
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new HashingExecutor(threads, hashingQueueCapacity, hashingMaxWaitMillis, meterRegistry);
+    }
+
+    @Bean
+    public PasswordHasher passwordHasher(HashingExecutor hashingExecutor) {
+        TunablePasswordHasher pbkdf2 = new Pbkdf2PasswordHasher(pbkdf2Iterations);
+        TunablePasswordHasher scrypt = new ScryptPasswordHasher(scryptLog2N, scryptBlockSize, scryptParallelism);
+        TunablePasswordHasher argon2 = new Argon2PasswordHasher(argon2MemoryKiB, argon2Iterations, argon2Parallelism);
+
+        TunablePasswordHasher current;
+        switch (algorithm) {
+            case Pbkdf2PasswordHasher.ALGORITHM_ID:
+                current = pbkdf2;
+                break;
+            case ScryptPasswordHasher.ALGORITHM_ID:
+                current = scrypt;
+                break;
+            case Argon2PasswordHasher.ALGORITHM_ID:
+                current = argon2;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown password hash algorithm: " + algorithm);
+        }
+
+        if (calibrate) {
+            current = PasswordHasherCalibrator.calibrate(current, calibrationTargetMillis);
+        }
+
+        PasswordHasher delegating = new DelegatingPasswordHasher(current, new Sha256PasswordHasher(), pbkdf2, scrypt, argon2);
+        return new BoundedPasswordHasher(delegating, hashingExecutor);
+    }
+}
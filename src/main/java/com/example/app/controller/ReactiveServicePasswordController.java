@@ -0,0 +1,147 @@
+package com.example.app.controller;
+
+import com.example.app.dto.CursorPage;
+import com.example.app.dto.ServiceSummary;
+import com.example.app.model.ServicePassword;
+import com.example.app.service.AuthMetrics;
+import com.example.app.service.AuthTokenService;
+import com.example.app.service.ReactivePasswordService;
+import com.example.app.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+
+/**
+ * WebFlux version of {@link ServicePasswordController} for the reactive profile. Vault imports
+ * and exports are only served by the servlet stack.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/pass-manager")
+public class ReactiveServicePasswordController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private ReactivePasswordService reactivePasswordService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @PostMapping("/add")
+    public Mono<ServicePassword> addPassword(@RequestBody Map<String, String> request,
+                                             @RequestHeader(value = "Authorization", required = false) String authorization) {
+        String username = request.get("username");
+        String password = request.get("password");
+
+        return authenticate(username, password, authorization)
+                .then(reactivePasswordService.addPassword(username, request.get("serviceName"), request.get("servicePassword")));
+    }
+
+    @GetMapping("/{username}")
+    public Flux<ServicePassword> getPasswords(@PathVariable String username,
+                                              @RequestParam(required = false) String password,
+                                              @RequestHeader(value = "Authorization", required = false) String authorization) {
+
+        return authenticate(username, password, authorization)
+                .thenMany(reactivePasswordService.getPasswords(username));
+    }
+
+    @GetMapping("/{username}/services")
+    public Flux<ServiceSummary> getServices(@PathVariable String username,
+                                            @RequestParam(required = false) String password,
+                                            @RequestHeader(value = "Authorization", required = false) String authorization) {
+
+        return authenticate(username, password, authorization)
+                .thenMany(reactivePasswordService.getServiceSummaries(username));
+    }
+
+    @GetMapping("/{username}/services/{serviceName}")
+    public Mono<ServicePassword> getService(@PathVariable String username,
+                                            @PathVariable String serviceName,
+                                            @RequestParam(required = false) String password,
+                                            @RequestHeader(value = "Authorization", required = false) String authorization) {
+
+        return authenticate(username, password, authorization)
+                .then(reactivePasswordService.getPassword(username, serviceName));
+    }
+
+    @GetMapping("/{username}/page")
+    public Mono<CursorPage<ServicePassword>> getPasswordPage(@PathVariable String username,
+                                                             @RequestParam(required = false) String password,
+                                                             @RequestParam(required = false) Long cursor,
+                                                             @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                                             @RequestHeader(value = "Authorization", required = false) String authorization) {
+
+        return authenticate(username, password, authorization)
+                .then(reactivePasswordService.getPasswordPage(username, cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE))));
+    }
+
+    // Each entry is written as it arrives, and rows are only fetched as fast as the client reads
+    @GetMapping(value = "/{username}/stream", produces = NDJSON)
+    public Flux<ServicePassword> streamPasswords(@PathVariable String username,
+                                                 @RequestParam(required = false) String password,
+                                                 @RequestHeader(value = "Authorization", required = false) String authorization) {
+
+        return authenticate(username, password, authorization)
+                .thenMany(reactivePasswordService.getPasswords(username));
+    }
+
+    @PutMapping("/update/{serviceName}")
+    public Mono<ServicePassword> updatePassword(@PathVariable String serviceName,
+                                                @RequestBody Map<String, String> requestParams,
+                                                @RequestHeader(value = "Authorization", required = false) String authorization) {
+        String username = requestParams.get("username");
+        String password = requestParams.get("password");
+        String newServicePassword = requestParams.get("servicePassword");
+
+        return authenticate(username, password, authorization)
+                .then(newServicePassword == null
+                        ? reactivePasswordService.getPassword(username, serviceName)
+                        : reactivePasswordService.updatePassword(username, serviceName, newServicePassword));
+    }
+
+    @DeleteMapping("/delete/{serviceName}")
+    public Mono<Void> deletePassword(@PathVariable String serviceName,
+                                     @RequestBody Map<String, String> requestParams,
+                                     @RequestHeader(value = "Authorization", required = false) String authorization) {
+        String username = requestParams.get("username");
+        String password = requestParams.get("password");
+
+        return authenticate(username, password, authorization)
+                .then(reactivePasswordService.deletePassword(username, serviceName));
+    }
+
+    // A token check is in memory and runs inline; a password check reads the user over JPA and
+    // waits for the hashing pool, so it runs on a worker thread
+    private Mono<Void> authenticate(String username, String password, String authorization) {
+        Mono<Boolean> authenticated;
+        if (authorization != null) {
+            authenticated = Mono.fromCallable(() -> {
+                boolean valid = authTokenService.isValid(authorization, username);
+                authMetrics.tokenCheck(valid);
+                return valid;
+            });
+        } else {
+            authenticated = Mono.fromCallable(() -> userService.validateUser(username, password))
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+
+        return authenticated.flatMap(valid -> valid
+                ? Mono.<Void>empty()
+                : Mono.error(new SecurityException("Invalid username or password")));
+    }
+}
@@ -1,89 +1,291 @@
 package com.example.app.controller;
 
+import com.example.app.dto.CursorPage;
+import com.example.app.dto.ImportResult;
+import com.example.app.dto.ServiceSummary;
+import com.example.app.exception.InvalidArchiveException;
+import com.example.app.exception.ResourceConflictException;
 import com.example.app.exception.ResourceNotFoundException;
 import com.example.app.model.ServicePassword;
 import com.example.app.repository.ServicePasswordRepository;
+import com.example.app.service.AuthMetrics;
+import com.example.app.service.AuthTokenService;
+import com.example.app.service.DataKeyService;
+import com.example.app.service.PasswordService;
 import com.example.app.service.UserService;
+import com.example.app.util.ConstraintViolations;
+import com.example.app.util.HashingExecutor;
+import com.example.app.util.ServicePasswordImportReader;
+import com.example.app.util.VaultArchive;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+// Replaced by ReactiveServicePasswordController under the reactive profile
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/pass-manager")
 public class ServicePasswordController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+    private static final String VAULT_ARCHIVE = "application/vnd.pass-manager.vault";
+    private static final String PASSPHRASE_HEADER = "X-Vault-Passphrase";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private ServicePasswordRepository servicePasswordRepository;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataKeyService dataKeyService;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Autowired
+    private HashingExecutor hashingExecutor;
+
     @PostMapping("/add")
-    public ServicePassword addPassword(@RequestBody Map<String, String> request) {
+    public ServicePassword addPassword(@RequestBody Map<String, String> request,
+                                       @RequestHeader(value = "Authorization", required = false) String authorization) {
         String username = request.get("username");
         String password = request.get("password");
         String serviceName = request.get("serviceName");
         String servicePassword = request.get("servicePassword");
 
-        if (!userService.validateUser(username, password)) {
-            throw new SecurityException("Invalid username or password");
-        }
+        authenticate(username, password, authorization);
 
         ServicePassword servicePasswordEntity = new ServicePassword();
         servicePasswordEntity.setServiceName(serviceName);
         servicePasswordEntity.setPassword(servicePassword);
         servicePasswordEntity.setUsername(username);
 
-        return servicePasswordRepository.save(servicePasswordEntity);
+        try {
+            return servicePasswordRepository.saveAndFlush(servicePasswordEntity);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, ServicePassword.UNIQUE_SERVICE_NAME)) {
+                throw new ResourceConflictException("Service already exists for this user");
+            }
+            throw e;
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, CSV})
+    public ImportResult importPasswords(@RequestParam String username,
+                                        @RequestParam(required = false) String password,
+                                        @RequestHeader(value = "Authorization", required = false) String authorization,
+                                        HttpServletRequest request) throws IOException {
+
+        authenticate(username, password, authorization);
+
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(CSV));
+        try (ServicePasswordImportReader rows = csv
+                ? ServicePasswordImportReader.csv(request.getInputStream())
+                : ServicePasswordImportReader.json(request.getInputStream(), objectMapper)) {
+            return passwordService.importPasswords(username, rows);
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = VAULT_ARCHIVE)
+    public ImportResult importArchive(@RequestParam String username,
+                                      @RequestParam(required = false) String password,
+                                      @RequestHeader(value = "Authorization", required = false) String authorization,
+                                      @RequestHeader(PASSPHRASE_HEADER) String passphrase,
+                                      HttpServletRequest request) throws IOException {
+
+        authenticate(username, password, authorization);
+
+        // Opening the archive decrypts its first segment, so a wrong passphrase fails before anything is stored
+        InputStream archive;
+        try {
+            archive = new GZIPInputStream(VaultArchive.decrypt(request.getInputStream(), passphrase.toCharArray(), hashingExecutor));
+        } catch (IOException e) {
+            throw new InvalidArchiveException(e.getMessage(), e);
+        }
+
+        try (ServicePasswordImportReader rows = ServicePasswordImportReader.json(archive, objectMapper)) {
+            return passwordService.importPasswords(username, rows);
+        }
+    }
+
+    @GetMapping(value = "/{username}/export", produces = VAULT_ARCHIVE)
+    public void exportPasswords(@PathVariable String username,
+                                @RequestParam(required = false) String password,
+                                @RequestHeader(value = "Authorization", required = false) String authorization,
+                                @RequestHeader(PASSPHRASE_HEADER) String passphrase,
+                                HttpServletResponse response) throws IOException {
+
+        authenticate(username, password, authorization);
+
+        response.setContentType(VAULT_ARCHIVE);
+        response.setHeader("Content-Disposition", "attachment; filename=\"vault.pmva\"");
+
+        // Same shape as a JSON import, so an export can be fed straight back into /import
+        VaultArchive.EncryptingOutputStream archive = VaultArchive.encrypt(response.getOutputStream(), passphrase.toCharArray(),
+                hashingExecutor);
+        try (SequenceWriter writer = objectMapper.writer().writeValuesAsArray(new GZIPOutputStream(archive))) {
+            Map<String, String> entry = new LinkedHashMap<>();
+            try {
+                passwordService.forEachPassword(username, servicePassword -> {
+                    entry.put("serviceName", servicePassword.getServiceName());
+                    entry.put("servicePassword", servicePassword.getPassword());
+                    try {
+                        writer.write(entry);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Closing the writer would otherwise seal what was written so far as a complete archive
+                archive.abort();
+                throw e;
+            }
+        }
     }
 
     @GetMapping("/{username}")
     public List<ServicePassword> getPasswords(@PathVariable String username, 
-                                              @RequestParam String password) {
+                                              @RequestParam(required = false) String password,
+                                              @RequestHeader(value = "Authorization", required = false) String authorization) {
 
-        if (!userService.validateUser(username, password)) {
-            throw new SecurityException("Invalid username or password");
-        }
+        authenticate(username, password, authorization);
         return servicePasswordRepository.findByUsername(username);
     }
 
+    @GetMapping("/{username}/services")
+    public List<ServiceSummary> getServices(@PathVariable String username,
+                                            @RequestParam(required = false) String password,
+                                            @RequestHeader(value = "Authorization", required = false) String authorization) {
+
+        authenticate(username, password, authorization);
+        return passwordService.getServiceSummaries(username);
+    }
+
+    @GetMapping("/{username}/services/{serviceName}")
+    public ServicePassword getService(@PathVariable String username,
+                                      @PathVariable String serviceName,
+                                      @RequestParam(required = false) String password,
+                                      @RequestHeader(value = "Authorization", required = false) String authorization) {
+
+        authenticate(username, password, authorization);
+        return passwordService.getPassword(username, serviceName);
+    }
+
+    @GetMapping("/{username}/page")
+    public CursorPage<ServicePassword> getPasswordPage(@PathVariable String username,
+                                                       @RequestParam(required = false) String password,
+                                                       @RequestParam(required = false) Long cursor,
+                                                       @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                                       @RequestHeader(value = "Authorization", required = false) String authorization) {
+
+        authenticate(username, password, authorization);
+        return passwordService.getPasswordPage(username, cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    @GetMapping(value = "/{username}/stream", produces = NDJSON)
+    public void streamPasswords(@PathVariable String username,
+                                @RequestParam(required = false) String password,
+                                @RequestHeader(value = "Authorization", required = false) String authorization,
+                                HttpServletResponse response) throws IOException {
+
+        authenticate(username, password, authorization);
+
+        response.setContentType(NDJSON);
+        try (SequenceWriter writer = objectMapper.writerFor(ServicePassword.class)
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream())) {
+            passwordService.forEachPassword(username, servicePassword -> {
+                try {
+                    writer.write(servicePassword);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
     @PutMapping("/update/{serviceName}")
     public ServicePassword updatePassword(@PathVariable String serviceName,
-                                          @RequestBody Map<String, String> requestParams) {
+                                          @RequestBody Map<String, String> requestParams,
+                                          @RequestHeader(value = "Authorization", required = false) String authorization) {
         String username = requestParams.get("username");
         String password = requestParams.get("password");
 
-        if (!userService.validateUser(username, password)) {
-            throw new SecurityException("Invalid username or password");
-        }
-
-        ServicePassword existingPassword = servicePasswordRepository.findByUsernameAndServiceName(username, serviceName)
-                .orElseThrow(() -> new ResourceNotFoundException("ServicePassword not found for user :: " + username + " and service :: " + serviceName));
+        authenticate(username, password, authorization);
 
         String newServicePassword = requestParams.get("servicePassword");
 
-        if (newServicePassword != null) {
-            existingPassword.setPassword(newServicePassword);
+        if (newServicePassword == null) {
+            return servicePasswordRepository.findByUsernameAndServiceName(username, serviceName)
+                    .orElseThrow(() -> new ResourceNotFoundException("ServicePassword not found for user :: " + username + " and service :: " + serviceName));
         }
 
-        return servicePasswordRepository.save(existingPassword);
+        String encryptedPassword = dataKeyService.encrypt(username, newServicePassword);
+        Long id = servicePasswordRepository.updateEncryptedPasswordByUsernameAndServiceName(username, serviceName, encryptedPassword)
+                .orElseThrow(() -> new ResourceNotFoundException("ServicePassword not found for user :: " + username + " and service :: " + serviceName));
+
+        ServicePassword updatedPassword = new ServicePassword();
+        updatedPassword.setId(id);
+        updatedPassword.setUsername(username);
+        updatedPassword.setServiceName(serviceName);
+        updatedPassword.setPassword(newServicePassword);
+        return updatedPassword;
     }
 
     @DeleteMapping("/delete/{serviceName}")
     public void deletePassword(@PathVariable String serviceName, 
-                               @RequestBody Map<String, String> requestParams) {
+                               @RequestBody Map<String, String> requestParams,
+                               @RequestHeader(value = "Authorization", required = false) String authorization) {
         String username = requestParams.get("username");
         String password = requestParams.get("password");
 
-        if (!userService.validateUser(username, password)) {
-            throw new SecurityException("Invalid username or password");
-        }
-        
-        if (servicePasswordRepository.findByUsernameAndServiceName(username, serviceName) == null) {
+        authenticate(username, password, authorization);
+
+        if (servicePasswordRepository.deleteByUsernameAndServiceName(username, serviceName) == 0) {
             throw new ResourceNotFoundException("ServicePassword not found for this user :: " + username);
         }
-        servicePasswordRepository.deleteByUsernameAndServiceName(username, serviceName);
+    }
+
+    // A bearer token is checked in memory; only clients without one pay for a user lookup and a password check
+    private void authenticate(String username, String password, String authorization) {
+        boolean authenticated;
+        if (authorization != null) {
+            authenticated = authTokenService.isValid(authorization, username);
+            authMetrics.tokenCheck(authenticated);
+        } else {
+            authenticated = userService.validateUser(username, password);
+        }
+
+        if (!authenticated) {
+            throw new SecurityException("Invalid username or password");
+        }
     }
 }
@@ -1,28 +1,53 @@
 package com.example.app.controller;
 
+import com.example.app.dto.CursorPage;
+import com.example.app.dto.UserSummary;
 import com.example.app.model.User;
+import com.example.app.service.AuthTokenService;
 import com.example.app.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
+// Blocking endpoints are left to servlet nodes; reactive nodes accept the tokens they issue
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/auth")
 public class UserController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AuthTokenService authTokenService;
+
     @PostMapping("/register")
     public User register(@RequestBody User user) {
         return userService.registerUser(user);
     }
 
+    @PostMapping("/login")
+    public Map<String, Object> login(@RequestBody Map<String, String> request) {
+        String token = userService.login(request.get("username"), request.get("password"));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", token);
+        response.put("tokenType", "Bearer");
+        response.put("expiresIn", authTokenService.getTtlSeconds());
+        return response;
+    }
+
     @GetMapping("/users")
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    public CursorPage<UserSummary> getUsers(@RequestParam(required = false) Long cursor,
+                                            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        return userService.getUsers(cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
     }
 
     @PostMapping("/get-user/{username}")
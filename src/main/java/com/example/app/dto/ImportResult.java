@@ -0,0 +1,57 @@
+package com.example.app.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Rows not listed in {@code errors} were stored.
+ */
+public class ImportResult {
+
+    private long imported;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void recordImported(int count) {
+        imported += count;
+    }
+
+    public void recordError(int row, String serviceName, String message) {
+        errors.add(new RowError(row, serviceName, message));
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return errors.size();
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public static class RowError {
+        private final int row;
+        private final String serviceName;
+        private final String message;
+
+        public RowError(int row, String serviceName, String message) {
+            this.row = row;
+            this.serviceName = serviceName;
+            this.message = message;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public String getServiceName() {
+            return serviceName;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
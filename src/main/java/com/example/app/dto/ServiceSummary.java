@@ -0,0 +1,24 @@
+package com.example.app.dto;
+
+/**
+ * Vault entry without its secret, for listings; built directly by the query so the
+ * password column is neither read nor decrypted.
+ */
+public class ServiceSummary {
+
+    private final Long id;
+    private final String serviceName;
+
+    public ServiceSummary(Long id, String serviceName) {
+        this.id = id;
+        this.serviceName = serviceName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.app.dto;
+
+/**
+ * Public view of an account for listings; built directly by the query so no entity
+ * (and no password hash) is loaded.
+ */
+public class UserSummary {
+
+    private final Long id;
+    private final String username;
+
+    public UserSummary(Long id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.app.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@SuppressWarnings("serial")
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidArchiveException extends RuntimeException {
+    public InvalidArchiveException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,19 +1,40 @@
 package com.example.app.model;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
 
+// Not in the second-level cache: it is local to each node, and a changed or deleted secret must
+// not be served from another node's copy
 @Entity
+@EntityListeners(ServicePasswordEncryptionListener.class)
+@Table(name = "service_password",
+        uniqueConstraints = @UniqueConstraint(name = ServicePassword.UNIQUE_SERVICE_NAME,
+                columnNames = {"username", "service_name"}))
 public class ServicePassword {
+    public static final String UNIQUE_SERVICE_NAME = "uk_service_password_username_service_name";
+
+    // Sequence ids (unlike IDENTITY) let Hibernate batch inserts; see V3__pooled_service_password_ids.sql
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "service_password_seq")
+    @SequenceGenerator(name = "service_password_seq", sequenceName = "service_password_id_seq", allocationSize = 50)
     private Long id;
 
+    @Column(name = "service_name")
     private String serviceName;
+
+    // Only the ciphertext is persisted; see ServicePasswordEncryptionListener
+    @Column(name = "password", length = 1024)
+    private String encryptedPassword;
+
+    @Transient
     private String password;
     
     @Column(nullable = false)
     private String username;
 
+    // Set by PasswordService.importPasswords; write-only so it stays out of API responses
+    @Column(name = "import_id", length = 36)
+    private String importId;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -37,6 +58,20 @@ public class ServicePassword {
 
     public void setPassword(String password) {
         this.password = password;
+        // Marks the entity dirty so the listener re-encrypts on the next flush
+        this.encryptedPassword = null;
+    }
+
+    void setDecryptedPassword(String password) {
+        this.password = password;
+    }
+
+    String getEncryptedPassword() {
+        return encryptedPassword;
+    }
+
+    void setEncryptedPassword(String encryptedPassword) {
+        this.encryptedPassword = encryptedPassword;
     }
 
     public String getUsername() {
@@ -46,4 +81,8 @@ public class ServicePassword {
     public void setUsername(String username) {
         this.username = username;
     }
+
+    public void setImportId(String importId) {
+        this.importId = importId;
+    }
 }
@@ -0,0 +1,39 @@
+package com.example.app.model;
+
+import com.example.app.service.DataKeyService;
+import com.example.app.util.SecretCipher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Encrypts {@link ServicePassword} secrets with the owner's data key on the way into the
+ * database and decrypts them on load. Instantiated by Hibernate through Spring, so it can be
+ * autowired.
+ */
+public class ServicePasswordEncryptionListener {
+
+    // Lazy: the listener is built with the EntityManagerFactory, which DataKeyService itself depends on
+    @Autowired
+    @Lazy
+    private DataKeyService dataKeyService;
+
+    @PrePersist
+    @PreUpdate
+    public void encrypt(ServicePassword servicePassword) {
+        // Also covers rows written before encryption, whose column still holds the plaintext
+        if (servicePassword.getPassword() != null && !SecretCipher.isEncrypted(servicePassword.getEncryptedPassword())) {
+            servicePassword.setEncryptedPassword(
+                    dataKeyService.encrypt(servicePassword.getUsername(), servicePassword.getPassword()));
+        }
+    }
+
+    @PostLoad
+    public void decrypt(ServicePassword servicePassword) {
+        servicePassword.setDecryptedPassword(
+                dataKeyService.decrypt(servicePassword.getUsername(), servicePassword.getEncryptedPassword()));
+    }
+}
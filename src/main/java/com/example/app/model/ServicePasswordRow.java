@@ -0,0 +1,57 @@
+package com.example.app.model;
+
+/**
+ * A {@code service_password} row as read and written over R2DBC by the reactive stack. Unlike
+ * {@link ServicePassword} there is no entity listener, so {@code encryptedPassword} is exactly
+ * what is stored and callers encrypt and decrypt it themselves.
+ */
+public class ServicePasswordRow {
+    private Long id;
+
+    private String serviceName;
+
+    private String encryptedPassword;
+
+    private String username;
+
+    public ServicePasswordRow() {}
+
+    public ServicePasswordRow(Long id, String username, String serviceName, String encryptedPassword) {
+        this.id = id;
+        this.username = username;
+        this.serviceName = serviceName;
+        this.encryptedPassword = encryptedPassword;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public void setServiceName(String serviceName) {
+        this.serviceName = serviceName;
+    }
+
+    public String getEncryptedPassword() {
+        return encryptedPassword;
+    }
+
+    public void setEncryptedPassword(String encryptedPassword) {
+        this.encryptedPassword = encryptedPassword;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+}
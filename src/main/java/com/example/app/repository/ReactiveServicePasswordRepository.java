@@ -0,0 +1,103 @@
+package com.example.app.repository;
+
+import com.example.app.dto.ServiceSummary;
+import com.example.app.model.ServicePasswordRow;
+import io.r2dbc.spi.Parameters;
+import io.r2dbc.spi.R2dbcType;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link ServicePasswordRepository} for the reactive profile, on
+ * R2DBC's {@link DatabaseClient}. Values in the password column are passed through as stored.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveServicePasswordRepository {
+
+    // Rows are pulled from a server-side portal this many at a time, as the subscriber asks
+    private static final int FETCH_SIZE = 500;
+
+    private static final String COLUMNS = "id, username, service_name, password";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Flux<ServicePasswordRow> findByUsername(String username) {
+        return databaseClient.sql("select " + COLUMNS + " from service_password where username = :username order by id")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .bind("username", username)
+                .map(ReactiveServicePasswordRepository::toRow)
+                .all();
+    }
+
+    public Flux<ServiceSummary> findSummariesByUsername(String username) {
+        return databaseClient.sql("select id, service_name from service_password where username = :username order by id")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .bind("username", username)
+                .map(row -> new ServiceSummary(row.get("id", Long.class), row.get("service_name", String.class)))
+                .all();
+    }
+
+    // Keyset page: rows after the cursor id
+    public Flux<ServicePasswordRow> findPageByUsername(String username, long cursor, int limit) {
+        return databaseClient.sql("select " + COLUMNS + " from service_password where username = :username and id > :cursor order by id limit :limit")
+                .bind("username", username)
+                .bind("cursor", cursor)
+                .bind("limit", limit)
+                .map(ReactiveServicePasswordRepository::toRow)
+                .all();
+    }
+
+    public Mono<ServicePasswordRow> findByUsernameAndServiceName(String username, String serviceName) {
+        return databaseClient.sql("select " + COLUMNS + " from service_password where username = :username and service_name = :serviceName")
+                .bind("username", username)
+                .bind("serviceName", serviceName)
+                .map(ReactiveServicePasswordRepository::toRow)
+                .one();
+    }
+
+    // The id comes from the column default, i.e. service_password_id_seq. Each value is the top
+    // of its own block of 50, so it never collides with the ids Hibernate's pooled optimizer uses.
+    public Mono<ServicePasswordRow> insert(String username, String serviceName, String encryptedPassword) {
+        return databaseClient.sql("insert into service_password (username, service_name, password) values (:username, :serviceName, :password)")
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bind("username", username)
+                // Typed so that null values still bind as varchar
+                .bind("serviceName", Parameters.in(R2dbcType.VARCHAR, serviceName))
+                .bind("password", Parameters.in(R2dbcType.VARCHAR, encryptedPassword))
+                .map(row -> new ServicePasswordRow(row.get("id", Long.class), username, serviceName, encryptedPassword))
+                .one();
+    }
+
+    // Single statement; the row count doubles as the existence check
+    public Mono<Long> deleteByUsernameAndServiceName(String username, String serviceName) {
+        return databaseClient.sql("delete from service_password where username = :username and service_name = :serviceName")
+                .bind("username", username)
+                .bind("serviceName", serviceName)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // Takes an already encrypted value, like its JPA counterpart
+    // Returns the id of the updated row, empty if there was none
+    public Mono<Long> updateEncryptedPasswordByUsernameAndServiceName(String username, String serviceName, String encryptedPassword) {
+        return databaseClient.sql("update service_password set password = :password where username = :username and service_name = :serviceName")
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bind("password", encryptedPassword)
+                .bind("username", username)
+                .bind("serviceName", serviceName)
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    private static ServicePasswordRow toRow(Readable row) {
+        return new ServicePasswordRow(row.get("id", Long.class), row.get("username", String.class),
+                row.get("service_name", String.class), row.get("password", String.class));
+    }
+}
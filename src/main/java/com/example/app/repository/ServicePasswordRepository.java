@@ -1,17 +1,65 @@
 package com.example.app.repository;
 
+import com.example.app.dto.ServiceSummary;
 import com.example.app.model.ServicePassword;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ServicePasswordRepository extends JpaRepository<ServicePassword, Long> {
     List<ServicePassword> findByUsername(String username);
+
+    @Query("select new com.example.app.dto.ServiceSummary(sp.id, sp.serviceName) from ServicePassword sp where sp.username = :username order by sp.id")
+    List<ServiceSummary> findSummariesByUsername(@Param("username") String username);
+
+    // Keyset page: rows after the cursor id, with the page size taken from the Pageable
+    List<ServicePassword> findByUsernameAndIdGreaterThanOrderByIdAsc(String username, Long id, Pageable pageable);
+
+    // Keyset page of rows whose column does not match the ciphertext pattern, for SecretBackfillService
+    @Query("select sp from ServicePassword sp where sp.id > :afterId and sp.encryptedPassword not like :ciphertextPattern order by sp.id")
+    List<ServicePassword> findNotMatchingAfter(@Param("afterId") Long afterId,
+                                               @Param("ciphertextPattern") String ciphertextPattern, Pageable pageable);
+
+    // Server-side cursor; must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select sp from ServicePassword sp where sp.username = :username order by sp.id")
+    Stream<ServicePassword> streamByUsername(@Param("username") String username);
     
-    void deleteByUsernameAndServiceName(String username, String serviceName);
+    // Single statement; the returned row count doubles as the existence check. ServicePassword has
+    // no cache region and there is no query cache, so the bulk delete invalidates nothing
+    @Modifying
+    @Transactional
+    @Query("delete from ServicePassword sp where sp.username = :username and sp.serviceName = :serviceName")
+    int deleteByUsernameAndServiceName(@Param("username") String username, @Param("serviceName") String serviceName);
+
+    // Undoes an aborted import; the username keeps it on the (username, service_name) index
+    @Modifying
+    @Transactional
+    @Query("delete from ServicePassword sp where sp.username = :username and sp.importId = :importId")
+    int deleteByUsernameAndImportId(@Param("username") String username, @Param("importId") String importId);
+
+    // Native so the id comes back from the update itself, as in ReactiveServicePasswordRepository;
+    // empty if there was no such row. Bypasses the entity listener, so the caller passes an
+    // already encrypted value
+    @Transactional
+    @Query(value = "update service_password set password = :encryptedPassword where username = :username and service_name = :serviceName returning id",
+            nativeQuery = true)
+    Optional<Long> updateEncryptedPasswordByUsernameAndServiceName(@Param("username") String username,
+                                                                   @Param("serviceName") String serviceName,
+                                                                   @Param("encryptedPassword") String encryptedPassword);
     
     Optional<ServicePassword> findByUsernameAndServiceName(String username, String serviceName);
 }
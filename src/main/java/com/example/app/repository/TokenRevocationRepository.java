@@ -0,0 +1,39 @@
+package com.example.app.repository;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Session token revocations, as epoch milliseconds per user id. Plain JDBC like
+ * {@link UserDataKeyRepository}: there is no entity to cache and each write commits on its own.
+ */
+@Repository
+@Timed("app.repository")
+public class TokenRevocationRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insert(long userId, long revokedAt) {
+        jdbcTemplate.update("insert into token_revocation (revoked_at, user_id) values (?, ?)", revokedAt, userId);
+    }
+
+    // Latest revocation of each user revoked after {@code since}
+    public Map<Long, Long> findRevokedAfter(long since) {
+        Map<Long, Long> revocations = new HashMap<>();
+        jdbcTemplate.query("select user_id, max(revoked_at) from token_revocation where revoked_at > ? group by user_id",
+                rs -> {
+                    revocations.put(rs.getLong(1), rs.getLong(2));
+                }, since);
+        return revocations;
+    }
+
+    public int deleteRevokedUpTo(long until) {
+        return jdbcTemplate.update("delete from token_revocation where revoked_at <= ?", until);
+    }
+}
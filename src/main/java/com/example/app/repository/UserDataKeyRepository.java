@@ -0,0 +1,62 @@
+package com.example.app.repository;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Wrapped per-user data keys. Plain JDBC rather than JPA because keys are looked up from
+ * entity lifecycle callbacks, where re-entering the persistence context is not allowed;
+ * inside a transaction the lookups still run on the transaction's connection.
+ */
+// Spring Data repositories are timed automatically as spring.data.repository.invocations
+@Repository
+@Timed("app.repository")
+public class UserDataKeyRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate newTransaction;
+
+    @PostConstruct
+    public void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public Optional<byte[]> findWrappedKey(String username) {
+        List<byte[]> keys = jdbcTemplate.query("select wrapped_key from user_data_key where username = ?",
+                (rs, rowNum) -> rs.getBytes(1), username);
+        return keys.stream().findFirst();
+    }
+
+    public boolean hasKeys() {
+        return !jdbcTemplate.queryForList("select 1 from user_data_key limit 1", Integer.class).isEmpty();
+    }
+
+    /**
+     * Stores the key unless another writer got there first; callers re-read to find the winner.
+     * Runs in its own transaction so losing that race cannot abort the caller's.
+     */
+    public void insertIfAbsent(String username, byte[] wrappedKey) {
+        try {
+            newTransaction.executeWithoutResult(status -> jdbcTemplate.update(
+                    "insert into user_data_key (username, wrapped_key) values (?, ?)", username, wrappedKey));
+        } catch (DuplicateKeyException e) {
+            // Created concurrently; the stored key wins
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.app.repository;
+
+import com.example.app.model.User;
+
+/**
+ * Username lookups resolved through Hibernate's natural-id API, so a repeated lookup is served
+ * from the persistence context or the natural-id cache instead of a query.
+ */
+public interface UserNaturalIdRepository {
+    User findByUsername(String username);
+
+    boolean existsByUsername(String username);
+}
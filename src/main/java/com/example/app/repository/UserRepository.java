@@ -1,9 +1,28 @@
 package com.example.app.repository;
 
+import com.example.app.dto.UserSummary;
 import com.example.app.model.User;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    User findByUsername(String username);
-    boolean existsByUsername(String username);
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
+
+    @Query("select new com.example.app.dto.UserSummary(u.id, u.username) from User u where u.id > :cursor order by u.id")
+    List<UserSummary> findSummariesAfter(@Param("cursor") Long cursor, Pageable pageable);
+
+    // Reads the row from the database and locks it, bypassing the second-level cache
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+
+    // Salted hashes start with "$<algorithm>$"; anything else is a legacy SHA-256 hex digest
+    @Query("select count(u) from User u where u.password not like '$%'")
+    long countLegacyPasswordHashes();
 }
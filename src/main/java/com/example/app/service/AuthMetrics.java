@@ -0,0 +1,52 @@
+package com.example.app.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Outcome of every authentication check, as {@code auth.checks{method, result}}:
+ * {@code hit} was accepted without hashing the password, {@code miss} was verified
+ * against the stored hash, {@code fail} was rejected.
+ */
+@Component
+public class AuthMetrics {
+
+    private final Counter passwordHit;
+    private final Counter passwordMiss;
+    private final Counter passwordFail;
+    private final Counter tokenHit;
+    private final Counter tokenFail;
+    private final Counter loginMiss;
+    private final Counter loginFail;
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.passwordHit = counter(meterRegistry, "password", "hit");
+        this.passwordMiss = counter(meterRegistry, "password", "miss");
+        this.passwordFail = counter(meterRegistry, "password", "fail");
+        this.tokenHit = counter(meterRegistry, "token", "hit");
+        this.tokenFail = counter(meterRegistry, "token", "fail");
+        this.loginMiss = counter(meterRegistry, "login", "miss");
+        this.loginFail = counter(meterRegistry, "login", "fail");
+    }
+
+    public void passwordCheck(boolean cached, boolean valid) {
+        (valid ? (cached ? passwordHit : passwordMiss) : passwordFail).increment();
+    }
+
+    public void tokenCheck(boolean valid) {
+        (valid ? tokenHit : tokenFail).increment();
+    }
+
+    public void login(boolean valid) {
+        (valid ? loginMiss : loginFail).increment();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String method, String result) {
+        return Counter.builder("auth.checks")
+                .tag("method", method)
+                .tag("result", result)
+                .description("Authentication checks by credential type and outcome")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.app.service;
+
+import com.example.app.model.User;
+import com.example.app.repository.TokenRevocationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies short-lived session tokens of the form
+ * {@code base64url(userId:issuedAt:expiresAt:username).base64url(hmac)}.
+ *
+ * Checking a token never touches the database. A revocation is written to the
+ * {@code token_revocation} table and applies on this node at once; every node polls the table
+ * into memory, so it holds on the others within {@code app.auth.token.revocation-poll-ms}. Only
+ * revocations younger than the token lifetime can still reject a token, so older ones are
+ * pruned and the map stays small.
+ */
+@Service
+public class AuthTokenService {
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final SecretKeySpec signingKey;
+    private final long ttlSeconds;
+    private final long ttlMillis;
+    private final TokenRevocationRepository tokenRevocationRepository;
+    // User id -> tokens issued up to this epoch millisecond are revoked
+    private final Map<Long, Long> revocations = new ConcurrentHashMap<>();
+
+    public AuthTokenService(@Value("${app.auth.token.secret:}") String secret,
+                            @Value("${app.auth.token.ttl-seconds:900}") long ttlSeconds,
+                            TokenRevocationRepository tokenRevocationRepository) {
+        byte[] key;
+        if (secret == null || secret.isEmpty()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = Base64.getDecoder().decode(secret);
+        }
+        this.signingKey = new SecretKeySpec(key, MAC_ALGORITHM);
+        this.ttlSeconds = ttlSeconds;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.tokenRevocationRepository = tokenRevocationRepository;
+    }
+
+    public String issueToken(User user) {
+        long issuedAt = now();
+        String payload = user.getId() + ":" + issuedAt + ":" + (issuedAt + ttlMillis) + ":" + user.getUsername();
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payloadBytes) + "." + encoder.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * Accepts either a bare token or an {@code Authorization: Bearer} header value and checks
+     * that it is authentic, unexpired, not revoked and was issued to {@code username}.
+     */
+    public boolean isValid(String token, String username) {
+        if (token == null || username == null) {
+            return false;
+        }
+        if (token.startsWith(BEARER_PREFIX)) {
+            token = token.substring(BEARER_PREFIX.length()).trim();
+        }
+
+        int separator = token.indexOf('.');
+        if (separator < 0) {
+            return false;
+        }
+
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            payloadBytes = decoder.decode(token.substring(0, separator));
+            signature = decoder.decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+
+        if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+            return false;
+        }
+
+        String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split(":", 4);
+        if (parts.length != 4 || !parts[3].equals(username)) {
+            return false;
+        }
+
+        long userId;
+        long issuedAt;
+        long expiresAt;
+        try {
+            userId = Long.parseLong(parts[0]);
+            issuedAt = Long.parseLong(parts[1]);
+            expiresAt = Long.parseLong(parts[2]);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (now() >= expiresAt) {
+            return false;
+        }
+
+        // Renaming or deleting an account revokes its tokens, so a username taken over by
+        // another account cannot be reached with the old owner's token either
+        Long revokedAt = revocations.get(userId);
+        return revokedAt == null || issuedAt > revokedAt;
+    }
+
+    /**
+     * Rejects every token issued to {@code user} up to now, e.g. after a password change.
+     */
+    public void revoke(User user) {
+        long revokedAt = now();
+        tokenRevocationRepository.insert(user.getId(), revokedAt);
+        revocations.merge(user.getId(), revokedAt, Math::max);
+    }
+
+    /**
+     * Picks up revocations made on other nodes and forgets those older than the token lifetime.
+     */
+    @Scheduled(fixedDelayString = "${app.auth.token.revocation-poll-ms:5000}")
+    public void refreshRevocations() {
+        long cutoff = now() - ttlMillis;
+        tokenRevocationRepository.deleteRevokedUpTo(cutoff);
+        tokenRevocationRepository.findRevokedAfter(cutoff)
+                .forEach((userId, revokedAt) -> revocations.merge(userId, revokedAt, Math::max));
+        revocations.values().removeIf(revokedAt -> revokedAt <= cutoff);
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(signingKey);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error signing auth token", e);
+        }
+    }
+
+    private static long now() {
+        return System.currentTimeMillis();
+    }
+}
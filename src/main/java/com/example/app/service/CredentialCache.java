@@ -0,0 +1,169 @@
+package com.example.app.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers credentials that were recently verified so repeated auth checks for the same user
+ * skip the password hash.
+ *
+ * Entries are keyed by username and hold an HMAC of the presented password under a key
+ * that only lives in this process, never the password itself. Each entry also records the
+ * stored hash it was verified against and only matches that same hash, so a password changed
+ * or an account deleted on another node stops matching as soon as this node reads the user
+ * again, i.e. within the User cache TTL rather than this cache's.
+ */
+@Component
+public class CredentialCache implements MeterBinder {
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final SecretKeySpec macKey;
+
+    private final Map<String, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CredentialCache(@Value("${app.auth.cache.max-entries:10000}") int maxEntries,
+                           @Value("${app.auth.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.macKey = new SecretKeySpec(key, MAC_ALGORITHM);
+
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CredentialCache.Entry> eldest) {
+                return size() > CredentialCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns true if this exact username/password pair was verified against
+     * {@code storedHash} within the TTL.
+     */
+    public boolean isVerified(String username, String password, String storedHash) {
+        if (username == null || password == null) {
+            return false;
+        }
+
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(username);
+        }
+
+        if (entry == null || entry.isExpired(System.nanoTime()) || !entry.storedHash.equals(storedHash)
+                || !MessageDigest.isEqual(entry.digest, digest(username, password))) {
+            misses.incrementAndGet();
+            return false;
+        }
+
+        hits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Snapshot to take before reading the stored hash, and to hand back to {@link #put}.
+     * Guards against caching a credential that was invalidated while it was being verified.
+     */
+    public long stamp() {
+        return generation.get();
+    }
+
+    public void put(String username, String password, String storedHash, long stamp) {
+        if (username == null || password == null || storedHash == null) {
+            return;
+        }
+
+        Entry entry = new Entry(digest(username, password), storedHash, System.nanoTime() + ttlNanos);
+        synchronized (entries) {
+            if (generation.get() == stamp) {
+                entries.put(username, entry);
+            }
+        }
+    }
+
+    public void invalidate(String username) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(username);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.credential.cache", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .description("Auth checks answered from the verified-credential cache")
+                .register(registry);
+        FunctionCounter.builder("auth.credential.cache", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .description("Auth checks that had to hash the password")
+                .register(registry);
+        Gauge.builder("auth.credential.cache.size", this, CredentialCache::size)
+                .register(registry);
+    }
+
+    private byte[] digest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(macKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error computing credential digest", e);
+        }
+    }
+
+    private static final class Entry {
+        private final byte[] digest;
+        private final String storedHash;
+        private final long expiresAt;
+
+        private Entry(byte[] digest, String storedHash, long expiresAt) {
+            this.digest = digest;
+            this.storedHash = storedHash;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
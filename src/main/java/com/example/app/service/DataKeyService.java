@@ -0,0 +1,117 @@
+package com.example.app.service;
+
+import com.example.app.repository.UserDataKeyRepository;
+import com.example.app.util.MasterKey;
+import com.example.app.util.SecretCipher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Envelope encryption for vault entries: each user has an AES data key, stored wrapped by the
+ * {@link MasterKey}. Unwrapped keys are kept in a bounded LRU cache so that a listing costs one
+ * symmetric decrypt per row and at most one unwrap per user.
+ */
+@Service
+public class DataKeyService {
+
+    private final MasterKey masterKey;
+    private final UserDataKeyRepository userDataKeyRepository;
+    private final int maxEntries;
+    private final Map<String, SecretKey> dataKeys;
+
+    public DataKeyService(MasterKey masterKey, UserDataKeyRepository userDataKeyRepository,
+                          @Value("${app.crypto.data-key-cache.max-entries:10000}") int maxEntries) {
+        this.masterKey = masterKey;
+        this.userDataKeyRepository = userDataKeyRepository;
+        this.maxEntries = maxEntries;
+        this.dataKeys = new LinkedHashMap<String, SecretKey>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SecretKey> eldest) {
+                return size() > DataKeyService.this.maxEntries;
+            }
+        };
+    }
+
+    public String encrypt(String username, String plaintext) {
+        if (plaintext == null) {
+            return null;
+        }
+        return SecretCipher.encrypt(dataKey(username, true), plaintext);
+    }
+
+    /**
+     * Values written before encryption was introduced are returned unchanged;
+     * {@link SecretBackfillService} encrypts them in place after startup.
+     */
+    public String decrypt(String username, String stored) {
+        if (!SecretCipher.isEncrypted(stored)) {
+            return stored;
+        }
+        return SecretCipher.decrypt(dataKey(username, false), stored);
+    }
+
+    /**
+     * True if the user's data key is already unwrapped, so encrypt and decrypt for them do no
+     * database work.
+     */
+    public boolean isKeyLoaded(String username) {
+        synchronized (dataKeys) {
+            return dataKeys.containsKey(username);
+        }
+    }
+
+    /**
+     * Loads the user's data key into the cache, creating it if they have none yet.
+     */
+    public void loadKey(String username) {
+        dataKey(username, true);
+    }
+
+    public int size() {
+        synchronized (dataKeys) {
+            return dataKeys.size();
+        }
+    }
+
+    private SecretKey dataKey(String username, boolean create) {
+        SecretKey key;
+        synchronized (dataKeys) {
+            key = dataKeys.get(username);
+        }
+        if (key != null) {
+            return key;
+        }
+
+        byte[] wrapped = userDataKeyRepository.findWrappedKey(username).orElse(null);
+        if (wrapped == null) {
+            if (!create) {
+                throw new IllegalStateException("No data key for user " + username);
+            }
+            userDataKeyRepository.insertIfAbsent(username, masterKey.wrap(newDataKey()));
+            wrapped = userDataKeyRepository.findWrappedKey(username)
+                    .orElseThrow(() -> new IllegalStateException("Data key for user " + username + " was not stored"));
+        }
+
+        key = masterKey.unwrap(wrapped);
+        synchronized (dataKeys) {
+            dataKeys.put(username, key);
+        }
+        return key;
+    }
+
+    private static SecretKey newDataKey() {
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(256);
+            return generator.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error generating data key", e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.app.service;
+
+import com.example.app.exception.HashingCapacityExceededException;
+import com.example.app.repository.UserRepository;
+import com.example.app.util.PasswordHasher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Upgrades stored hashes to the current algorithm after a successful login, while the
+ * plaintext is still at hand. Runs off the request thread and touches one row at a time,
+ * so legacy accounts migrate as their owners log in without a table-wide batch job.
+ */
+@Service
+public class PasswordRehashService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordRehashService.class);
+
+    private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter rehashedCounter;
+    private volatile double legacyAccounts = Double.NaN;
+
+    public PasswordRehashService(UserRepository userRepository, PasswordHasher passwordHasher,
+                                 TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.transactionTemplate = transactionTemplate;
+        this.rehashedCounter = Counter.builder("auth.password.rehashed")
+                .description("Stored password hashes upgraded to the current algorithm on login")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.legacy", this, service -> service.legacyAccounts)
+                .description("Accounts still on a legacy password hash at the last count, NaN before the first")
+                .register(meterRegistry);
+    }
+
+    @Async("rehashExecutor")
+    public void rehash(Long userId, String password, String oldHash) {
+        String newHash;
+        try {
+            newHash = passwordHasher.hashPassword(password);
+        } catch (HashingCapacityExceededException e) {
+            // The hashing pool is busy serving logins; the next login will try again
+            log.debug("Skipping rehash for user {}: {}", userId, e.getMessage());
+            return;
+        }
+
+        // Set on the locked entity rather than by a bulk update, which would clear every cached
+        // user; only the hash it was computed from is replaced, so a concurrent password change wins
+        Boolean rehashed = transactionTemplate.execute(status -> userRepository.findByIdForUpdate(userId)
+                .filter(user -> oldHash.equals(user.getPassword()))
+                .map(user -> {
+                    user.setPassword(newHash);
+                    return true;
+                })
+                .orElse(false));
+        if (Boolean.TRUE.equals(rehashed)) {
+            rehashedCounter.increment();
+        }
+    }
+
+    // A full scan of app_user, so it runs on a timer rather than on demand
+    @Scheduled(fixedDelayString = "${app.rehash.legacy-count-interval-ms:300000}")
+    public void countLegacyAccounts() {
+        legacyAccounts = userRepository.countLegacyPasswordHashes();
+    }
+}
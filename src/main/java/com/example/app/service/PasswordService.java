@@ -1,20 +1,46 @@
 package com.example.app.service;
 
 import org.springframework.transaction.annotation.Transactional;
+import com.example.app.dto.CursorPage;
+import com.example.app.dto.ImportResult;
+import com.example.app.dto.ServiceSummary;
+import com.example.app.exception.InvalidArchiveException;
+import com.example.app.exception.ResourceConflictException;
 import com.example.app.exception.ResourceNotFoundException;
 import com.example.app.model.ServicePassword;
 import com.example.app.model.User;
 import com.example.app.repository.ServicePasswordRepository;
 import com.example.app.repository.UserRepository;
+import com.example.app.util.ConstraintViolations;
 import com.example.app.util.PasswordHasher;
+import com.example.app.util.ServicePasswordImportReader;
+import com.example.app.util.VaultArchive;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("app.service")
 public class PasswordService {
 
+    // Matches hibernate.jdbc.batch_size so each chunk goes out as one JDBC batch
+    private static final int IMPORT_BATCH_SIZE = 500;
+
     @Autowired
     private ServicePasswordRepository servicePasswordRepository;
 
@@ -24,6 +50,12 @@ public class PasswordService {
     @Autowired
     private PasswordHasher passwordHasher; // Injecting the instance
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public ServicePassword addPassword(String username, String password, ServicePassword servicePassword) {
         if (!validateUser(username, password)) {
             throw new SecurityException("Invalid username or password");
@@ -31,7 +63,15 @@ public class PasswordService {
 
         User user = userRepository.findByUsername(username);
         servicePassword.setUsername(user.getUsername());
-        return servicePasswordRepository.save(servicePassword);
+        // Flushed here so a taken service name surfaces as a conflict rather than at commit
+        try {
+            return servicePasswordRepository.saveAndFlush(servicePassword);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, ServicePassword.UNIQUE_SERVICE_NAME)) {
+                throw new ResourceConflictException("Service already exists for this user");
+            }
+            throw e;
+        }
     }
 
     public List<ServicePassword> getPasswords(String username, String password) {
@@ -42,6 +82,122 @@ public class PasswordService {
         return servicePasswordRepository.findByUsername(username);
     }
 
+    @Transactional(readOnly = true)
+    public List<ServiceSummary> getServiceSummaries(String username) {
+        return servicePasswordRepository.findSummariesByUsername(username);
+    }
+
+    @Transactional(readOnly = true)
+    public ServicePassword getPassword(String username, String serviceName) {
+        return servicePasswordRepository.findByUsernameAndServiceName(username, serviceName)
+                .orElseThrow(() -> new ResourceNotFoundException("ServicePassword not found for user: " + username + " and service: " + serviceName));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ServicePassword> getPasswordPage(String username, Long cursor, int limit) {
+        List<ServicePassword> items = servicePasswordRepository.findByUsernameAndIdGreaterThanOrderByIdAsc(
+                username, cursor == null ? 0L : cursor, PageRequest.of(0, limit));
+
+        Long nextCursor = items.size() < limit ? null : items.get(items.size() - 1).getId();
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    /**
+     * Feeds every entry of a vault to {@code action} from a database cursor, detaching each one
+     * afterwards so memory stays flat regardless of vault size.
+     */
+    @Transactional(readOnly = true)
+    public void forEachPassword(String username, Consumer<ServicePassword> action) {
+        try (Stream<ServicePassword> passwords = servicePasswordRepository.streamByUsername(username)) {
+            passwords.forEach(servicePassword -> {
+                action.accept(servicePassword);
+                entityManager.detach(servicePassword);
+            });
+        }
+    }
+
+    /**
+     * Inserts entries for an already authenticated user in batches of {@value #IMPORT_BATCH_SIZE},
+     * each in its own transaction, holding no more than one batch in memory. Invalid rows are
+     * reported and skipped; duplicates are left to the unique constraint, and a batch the database
+     * rejects is retried one row at a time, so only the rows it rejects are reported. Unreadable
+     * input ends the import with what was stored so far, except for a vault archive that fails
+     * authentication: nothing read from it can be trusted, so the rows already stored, which all
+     * carry this import's id, are deleted again and {@link InvalidArchiveException} is thrown.
+     */
+    public ImportResult importPasswords(String username, Iterator<ServicePasswordImportReader.Row> rows) {
+        ImportResult result = new ImportResult();
+        String importId = UUID.randomUUID().toString();
+        List<ServicePasswordImportReader.Row> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+
+        try {
+            while (rows.hasNext()) {
+                ServicePasswordImportReader.Row row = rows.next();
+                if (row.getServiceName() == null || row.getServiceName().isEmpty() || row.getServicePassword() == null) {
+                    result.recordError(row.getRowNumber(), row.getServiceName(), "serviceName and servicePassword are required");
+                } else {
+                    batch.add(row);
+                    if (batch.size() == IMPORT_BATCH_SIZE) {
+                        insertBatch(username, importId, batch, result);
+                        batch.clear();
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            if (e.getCause() instanceof VaultArchive.CorruptArchiveException) {
+                servicePasswordRepository.deleteByUsernameAndImportId(username, importId);
+                throw new InvalidArchiveException(e.getCause().getMessage(), e);
+            }
+            // Unreadable input ends the import; everything before it is still stored
+            result.recordError(0, null, e.getMessage());
+        }
+
+        insertBatch(username, importId, batch, result);
+        return result;
+    }
+
+    private void insertBatch(String username, String importId, List<ServicePasswordImportReader.Row> rows,
+                             ImportResult result) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            insert(username, importId, rows);
+            result.recordImported(rows.size());
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            // The whole batch was rolled back; retry it row by row so only the offenders are reported
+            for (ServicePasswordImportReader.Row row : rows) {
+                try {
+                    insert(username, importId, List.of(row));
+                    result.recordImported(1);
+                } catch (DataAccessException | PersistenceException | TransactionException rowError) {
+                    result.recordError(row.getRowNumber(), row.getServiceName(),
+                            ConstraintViolations.isViolationOf(rowError, ServicePassword.UNIQUE_SERVICE_NAME)
+                                    ? "Service already exists for this user"
+                                    : "Rejected by the database");
+                }
+            }
+        }
+    }
+
+    private void insert(String username, String importId, List<ServicePasswordImportReader.Row> rows) {
+        transactionTemplate.execute(status -> {
+            for (ServicePasswordImportReader.Row row : rows) {
+                ServicePassword servicePassword = new ServicePassword();
+                servicePassword.setUsername(username);
+                servicePassword.setServiceName(row.getServiceName());
+                servicePassword.setPassword(row.getServicePassword());
+                servicePassword.setImportId(importId);
+                entityManager.persist(servicePassword);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return null;
+        });
+    }
+
+    @Transactional
     public ServicePassword updatePassword(String username, String password, Long id, ServicePassword updatedPassword) {
         if (!validateUser(username, password)) {
             throw new SecurityException("Invalid username or password");
@@ -66,11 +222,9 @@ public class PasswordService {
             throw new SecurityException("Invalid username or password");
         }
 
-        if (!servicePasswordRepository.findByUsernameAndServiceName(username, serviceName).isPresent()) {
+        if (servicePasswordRepository.deleteByUsernameAndServiceName(username, serviceName) == 0) {
             throw new ResourceNotFoundException("ServicePassword not found for user: " + username + " and service: " + serviceName);
         }
-
-        servicePasswordRepository.deleteByUsernameAndServiceName(username, serviceName);
     }
 
     private boolean validateUser(String username, String password) {
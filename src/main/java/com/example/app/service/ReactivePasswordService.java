@@ -0,0 +1,98 @@
+package com.example.app.service;
+
+import com.example.app.dto.CursorPage;
+import com.example.app.dto.ServiceSummary;
+import com.example.app.exception.ResourceNotFoundException;
+import com.example.app.model.ServicePassword;
+import com.example.app.model.ServicePasswordRow;
+import com.example.app.repository.ReactiveServicePasswordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Vault operations for the reactive profile, over R2DBC. Secrets are encrypted and decrypted
+ * with the same per-user data keys as the JPA entity listener.
+ */
+@Service
+@Profile("reactive")
+public class ReactivePasswordService {
+
+    @Autowired
+    private ReactiveServicePasswordRepository reactiveServicePasswordRepository;
+
+    @Autowired
+    private DataKeyService dataKeyService;
+
+    public Mono<ServicePassword> addPassword(String username, String serviceName, String password) {
+        return loadDataKey(username)
+                .then(Mono.defer(() -> reactiveServicePasswordRepository.insert(username, serviceName, dataKeyService.encrypt(username, password))))
+                .map(row -> toServicePassword(row, password));
+    }
+
+    public Flux<ServicePassword> getPasswords(String username) {
+        return loadDataKey(username)
+                .thenMany(reactiveServicePasswordRepository.findByUsername(username))
+                .map(this::toServicePassword);
+    }
+
+    public Flux<ServiceSummary> getServiceSummaries(String username) {
+        return reactiveServicePasswordRepository.findSummariesByUsername(username);
+    }
+
+    public Mono<ServicePassword> getPassword(String username, String serviceName) {
+        return loadDataKey(username)
+                .then(reactiveServicePasswordRepository.findByUsernameAndServiceName(username, serviceName))
+                .map(this::toServicePassword)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("ServicePassword not found for user: " + username + " and service: " + serviceName)));
+    }
+
+    public Mono<CursorPage<ServicePassword>> getPasswordPage(String username, Long cursor, int limit) {
+        return loadDataKey(username)
+                .thenMany(reactiveServicePasswordRepository.findPageByUsername(username, cursor == null ? 0L : cursor, limit))
+                .map(this::toServicePassword)
+                .collectList()
+                .map(items -> new CursorPage<>(items, items.size() < limit ? null : items.get(items.size() - 1).getId()));
+    }
+
+    public Mono<ServicePassword> updatePassword(String username, String serviceName, String password) {
+        return loadDataKey(username)
+                .then(Mono.defer(() -> reactiveServicePasswordRepository.updateEncryptedPasswordByUsernameAndServiceName(
+                        username, serviceName, dataKeyService.encrypt(username, password))))
+                .map(id -> toServicePassword(new ServicePasswordRow(id, username, serviceName, null), password))
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("ServicePassword not found for user :: " + username + " and service :: " + serviceName)));
+    }
+
+    public Mono<Void> deletePassword(String username, String serviceName) {
+        return reactiveServicePasswordRepository.deleteByUsernameAndServiceName(username, serviceName)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new ResourceNotFoundException("ServicePassword not found for this user :: " + username))
+                        : Mono.empty());
+    }
+
+    // Data keys are read and created over JDBC, so a key that is not cached yet is loaded on a
+    // worker thread; after that encrypt and decrypt are CPU-only and safe on the event loop
+    private Mono<Void> loadDataKey(String username) {
+        if (dataKeyService.isKeyLoaded(username)) {
+            return Mono.empty();
+        }
+        return Mono.<Void>fromRunnable(() -> dataKeyService.loadKey(username))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private ServicePassword toServicePassword(ServicePasswordRow row) {
+        return toServicePassword(row, dataKeyService.decrypt(row.getUsername(), row.getEncryptedPassword()));
+    }
+
+    private ServicePassword toServicePassword(ServicePasswordRow row, String password) {
+        ServicePassword servicePassword = new ServicePassword();
+        servicePassword.setId(row.getId());
+        servicePassword.setUsername(row.getUsername());
+        servicePassword.setServiceName(row.getServiceName());
+        servicePassword.setPassword(password);
+        return servicePassword;
+    }
+}
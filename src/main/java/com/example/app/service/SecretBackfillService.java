@@ -0,0 +1,63 @@
+package com.example.app.service;
+
+import com.example.app.model.ServicePassword;
+import com.example.app.repository.ServicePasswordRepository;
+import com.example.app.util.SecretCipher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Encrypts vault entries written before encryption was introduced, whose column still holds
+ * the plaintext. Runs once after startup, one keyset page per transaction. Running it on
+ * several nodes at once only repeats work: each node writes valid ciphertext under the same
+ * data key.
+ */
+@Service
+public class SecretBackfillService {
+
+    private static final Logger log = LoggerFactory.getLogger(SecretBackfillService.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ServicePasswordRepository servicePasswordRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public SecretBackfillService(ServicePasswordRepository servicePasswordRepository,
+                                 TransactionTemplate transactionTemplate) {
+        this.servicePasswordRepository = servicePasswordRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Async("rehashExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void encryptLegacySecrets() {
+        long afterId = 0;
+        long encrypted = 0;
+        while (true) {
+            long from = afterId;
+            List<ServicePassword> batch = transactionTemplate.execute(status -> {
+                List<ServicePassword> rows = servicePasswordRepository.findNotMatchingAfter(
+                        from, SecretCipher.PREFIX + "%", PageRequest.of(0, BATCH_SIZE));
+                // Setting the password marks the row dirty; the entity listener encrypts it on flush
+                rows.forEach(servicePassword -> servicePassword.setPassword(servicePassword.getPassword()));
+                return rows;
+            });
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            encrypted += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        if (encrypted > 0) {
+            log.info("Encrypted {} vault entries stored before encryption was introduced", encrypted);
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package com.example.app.service;
 
+import com.example.app.dto.CursorPage;
+import com.example.app.dto.UserSummary;
 import com.example.app.exception.ResourceNotFoundException;
 import com.example.app.model.User;
 import com.example.app.repository.UserRepository;
+import com.example.app.util.ConstraintViolations;
 import com.example.app.util.PasswordHasher;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed("app.service")
 public class UserService {
 
     @Autowired
@@ -19,15 +27,23 @@ public class UserService {
     @Autowired
     private PasswordHasher passwordHasher;
 
+    @Autowired
+    private CredentialCache credentialCache;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private PasswordRehashService passwordRehashService;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
     public User registerUser(User user) {
         if (user.getUsername() == null || user.getUsername().isEmpty()) {
             throw new IllegalArgumentException("Username cannot be null or empty");
         }
 
-        if (userRepository.existsByUsername(user.getUsername())) {
-            throw new IllegalArgumentException("Username already taken");
-        }
-
         if (user.getPassword() == null || user.getPassword().length() < 8) {
             throw new IllegalArgumentException("Password must be at least 8 characters long");
         }
@@ -35,11 +51,25 @@ public class UserService {
         String hashedPassword = passwordHasher.hashPassword(user.getPassword());
         user.setPassword(hashedPassword);
 
-        return userRepository.save(user);
+        // One insert; uk_app_user_username rejects a taken name, including a concurrent registration.
+        // The hash above is therefore paid even for a taken name: a pre-check would bring back the
+        // extra round-trip on every sign-up to save hashing time on the rare conflict
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, User.UNIQUE_USERNAME)) {
+                throw new IllegalArgumentException("Username already taken");
+            }
+            throw e;
+        }
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummary> getUsers(Long cursor, int limit) {
+        List<UserSummary> users = userRepository.findSummariesAfter(cursor == null ? 0L : cursor, PageRequest.of(0, limit));
+
+        Long nextCursor = users.size() < limit ? null : users.get(users.size() - 1).getId();
+        return new CursorPage<>(users, nextCursor);
     }
 
     public Optional<User> getUserByUsername(String username, String password) {
@@ -53,6 +83,7 @@ public class UserService {
             throw new SecurityException("Invalid username or password");
         }
 
+        upgradeHashIfNeeded(existingUser, password);
         return Optional.of(existingUser);
     }
 
@@ -69,7 +100,12 @@ public class UserService {
 
         existingUser.setUsername(user.getUsername());
         existingUser.setPassword(passwordHasher.hashPassword(user.getPassword()));
-        return userRepository.save(existingUser);
+        authTokenService.revoke(existingUser);
+        // Invalidate on both sides of the write so a concurrent validateUser cannot re-cache the old password
+        credentialCache.invalidate(username);
+        User savedUser = userRepository.save(existingUser);
+        credentialCache.invalidate(username);
+        return savedUser;
     }
 
     public void deleteUser(String username, String password) {
@@ -83,16 +119,52 @@ public class UserService {
             throw new SecurityException("Invalid username or password");
         }
 
+        authTokenService.revoke(existingUser);
+        credentialCache.invalidate(username);
         userRepository.delete(existingUser);
+        credentialCache.invalidate(username);
+    }
+
+    public String login(String username, String password) {
+        User existingUser = userRepository.findByUsername(username);
+        if (existingUser == null || !passwordHasher.validatePassword(username, password, existingUser.getPassword())) {
+            authMetrics.login(false);
+            throw new SecurityException("Invalid username or password");
+        }
+
+        authMetrics.login(true);
+        upgradeHashIfNeeded(existingUser, password);
+        return authTokenService.issueToken(existingUser);
     }
 
     public boolean validateUser(String username, String password) {
+        long stamp = credentialCache.stamp();
+        // Usually from the second-level cache; its hash tells a cached credential whether the
+        // password has changed since, on any node
         User user = userRepository.findByUsername(username);
         if (user == null) {
+            authMetrics.passwordCheck(false, false);
             return false;
         }
 
+        if (credentialCache.isVerified(username, password, user.getPassword())) {
+            authMetrics.passwordCheck(true, true);
+            return true;
+        }
+
         // Use instance method for password validation
-        return passwordHasher.validatePassword(username, password, user.getPassword());
+        boolean valid = passwordHasher.validatePassword(username, password, user.getPassword());
+        authMetrics.passwordCheck(false, valid);
+        if (valid) {
+            credentialCache.put(username, password, user.getPassword(), stamp);
+            upgradeHashIfNeeded(user, password);
+        }
+        return valid;
+    }
+
+    private void upgradeHashIfNeeded(User user, String password) {
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            passwordRehashService.rehash(user.getId(), password, user.getPassword());
+        }
     }
 }
@@ -0,0 +1,75 @@
+package com.example.app.util;
+
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Memory-hard Argon2id. Calibration only raises the pass count; the memory cost stays
+ * at the configured value so the per-hash footprint on a node is predictable.
+ */
+public class Argon2PasswordHasher extends KdfPasswordHasher {
+
+    public static final String ALGORITHM_ID = "argon2id";
+
+    private final int memoryKiB;
+    private final int iterations;
+    private final int parallelism;
+
+    public Argon2PasswordHasher(int memoryKiB, int iterations, int parallelism) {
+        if (memoryKiB < 8 * parallelism || iterations < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Invalid Argon2 parameters");
+        }
+        this.memoryKiB = memoryKiB;
+        this.iterations = iterations;
+        this.parallelism = parallelism;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String getAlgorithmId() {
+        return ALGORITHM_ID;
+    }
+
+    @Override
+    public Argon2PasswordHasher stronger() {
+        return new Argon2PasswordHasher(memoryKiB, iterations * 2, parallelism);
+    }
+
+    @Override
+    protected String encodeParameters() {
+        return "v=19,m=" + memoryKiB + ",t=" + iterations + ",p=" + parallelism;
+    }
+
+    @Override
+    protected Argon2PasswordHasher withParameters(Map<String, Integer> parameters) {
+        if (requireParameter(parameters, "v") != Argon2Parameters.ARGON2_VERSION_13) {
+            throw new IllegalArgumentException("Unsupported Argon2 version");
+        }
+        return new Argon2PasswordHasher(requireParameter(parameters, "m"),
+                requireParameter(parameters, "t"),
+                requireParameter(parameters, "p"));
+    }
+
+    @Override
+    protected byte[] derive(String password, byte[] salt, int length) {
+        Argon2Parameters parameters = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+                .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+                .withMemoryAsKB(memoryKiB)
+                .withIterations(iterations)
+                .withParallelism(parallelism)
+                .withSalt(salt)
+                .build();
+
+        Argon2BytesGenerator generator = new Argon2BytesGenerator();
+        generator.init(parameters);
+        byte[] hash = new byte[length];
+        generator.generateBytes(password.getBytes(StandardCharsets.UTF_8), hash);
+        return hash;
+    }
+}
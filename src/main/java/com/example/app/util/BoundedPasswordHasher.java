@@ -0,0 +1,30 @@
+package com.example.app.util;
+
+/**
+ * Runs every hash and verification of the wrapped hasher on a {@link HashingExecutor}.
+ */
+public class BoundedPasswordHasher implements PasswordHasher {
+
+    private final PasswordHasher delegate;
+    private final HashingExecutor hashingExecutor;
+
+    public BoundedPasswordHasher(PasswordHasher delegate, HashingExecutor hashingExecutor) {
+        this.delegate = delegate;
+        this.hashingExecutor = hashingExecutor;
+    }
+
+    @Override
+    public String hashPassword(String password) {
+        return hashingExecutor.execute(() -> delegate.hashPassword(password));
+    }
+
+    @Override
+    public boolean validatePassword(String username, String inputPassword, String storedPasswordHash) {
+        return hashingExecutor.execute(() -> delegate.validatePassword(username, inputPassword, storedPasswordHash));
+    }
+
+    @Override
+    public boolean needsRehash(String storedPasswordHash) {
+        return delegate.needsRehash(storedPasswordHash);
+    }
+}
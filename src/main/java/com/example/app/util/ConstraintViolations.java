@@ -0,0 +1,29 @@
+package com.example.app.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Locale;
+
+/**
+ * Tells which database constraint a failed write violated, so that an expected conflict (such as
+ * a taken unique key) can be told apart from any other integrity error.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * True if {@code e} or one of its causes is a violation of {@code constraintName}. Databases
+     * report the name with their own casing and schema prefix, so it is matched loosely.
+     */
+    public static boolean isViolationOf(Throwable e, String constraintName) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraintName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
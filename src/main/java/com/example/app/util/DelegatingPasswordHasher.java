@@ -0,0 +1,59 @@
+package com.example.app.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hashes new passwords with the current algorithm and verifies stored hashes with whichever
+ * algorithm wrote them, based on the {@code $<algorithmId>$} prefix. Values without a prefix
+ * are legacy SHA-256 hex.
+ */
+public class DelegatingPasswordHasher implements PasswordHasher {
+
+    private final TunablePasswordHasher current;
+    private final Map<String, TunablePasswordHasher> hashersById = new HashMap<>();
+    private final PasswordHasher legacyHasher;
+
+    public DelegatingPasswordHasher(TunablePasswordHasher current, PasswordHasher legacyHasher,
+                                    TunablePasswordHasher... verifiers) {
+        this.current = current;
+        this.legacyHasher = legacyHasher;
+        for (TunablePasswordHasher verifier : verifiers) {
+            hashersById.put(verifier.getAlgorithmId(), verifier);
+        }
+        hashersById.put(current.getAlgorithmId(), current);
+    }
+
+    public TunablePasswordHasher getCurrent() {
+        return current;
+    }
+
+    @Override
+    public String hashPassword(String password) {
+        return current.hashPassword(password);
+    }
+
+    @Override
+    public boolean needsRehash(String storedPasswordHash) {
+        return current.needsRehash(storedPasswordHash);
+    }
+
+    @Override
+    public boolean validatePassword(String username, String inputPassword, String storedPasswordHash) {
+        if (storedPasswordHash == null) {
+            return false;
+        }
+
+        if (!storedPasswordHash.startsWith("$")) {
+            return legacyHasher.validatePassword(username, inputPassword, storedPasswordHash);
+        }
+
+        int end = storedPasswordHash.indexOf('$', 1);
+        if (end < 0) {
+            return false;
+        }
+
+        TunablePasswordHasher hasher = hashersById.get(storedPasswordHash.substring(1, end));
+        return hasher != null && hasher.validatePassword(username, inputPassword, storedPasswordHash);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.app.util;
+
+import com.example.app.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size pool that runs password hashing off the servlet threads. The queue is bounded and
+ * callers wait at most {@code maxWaitMillis}; beyond either limit the work is refused with
+ * {@link HashingCapacityExceededException} instead of piling up behind a login burst.
+ *
+ * Callers block while they wait, so work is also refused up front when the queue ahead of it
+ * would take longer than {@code maxWaitMillis} to drain at the recent average hashing time.
+ * A task whose caller has given up is dropped from the queue; one that has already started
+ * runs to completion, since a KDF does not respond to interruption.
+ */
+public class HashingExecutor {
+
+    // Weight of each new sample in the moving average of execution times
+    private static final int AVERAGE_WINDOW = 8;
+
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final long maxWaitMillis;
+    private final long maxWaitNanos;
+    private volatile long averageExecutionNanos;
+
+    private final Timer waitTimer;
+    private final Timer executionTimer;
+    private final Counter rejectedCounter;
+
+    public HashingExecutor(int threads, int queueCapacity, long maxWaitMillis, MeterRegistry meterRegistry) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.threads = threads;
+        this.maxWaitMillis = maxWaitMillis;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+
+        this.waitTimer = Timer.builder("auth.hashing.wait")
+                .description("Time hashing tasks spend queued before a worker picks them up")
+                .register(meterRegistry);
+        this.executionTimer = Timer.builder("auth.hashing.execution")
+                .description("Time spent computing a password hash")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.hashing.rejected")
+                .description("Hashing tasks refused because the pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("auth.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Callable<T> task) {
+        if (estimatedWaitNanos() > maxWaitNanos) {
+            rejectedCounter.increment();
+            throw new HashingCapacityExceededException("Too many concurrent authentication requests");
+        }
+
+        long submittedAt = System.nanoTime();
+        long deadline = submittedAt + maxWaitNanos;
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                // The caller is about to give up, if it has not already
+                if (startedAt - deadline > 0) {
+                    throw new HashingCapacityExceededException("Timed out waiting for password hashing");
+                }
+                try {
+                    return task.call();
+                } finally {
+                    long elapsed = System.nanoTime() - startedAt;
+                    executionTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                    long average = averageExecutionNanos;
+                    averageExecutionNanos = average == 0 ? elapsed : average + (elapsed - average) / AVERAGE_WINDOW;
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new HashingCapacityExceededException("Too many concurrent authentication requests");
+        }
+
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            giveUp(future);
+            rejectedCounter.increment();
+            throw new HashingCapacityExceededException("Timed out waiting for password hashing");
+        } catch (InterruptedException e) {
+            giveUp(future);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof HashingCapacityExceededException) {
+                rejectedCounter.increment();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Error hashing password", cause);
+        }
+    }
+
+    // Time for the queued work to drain; 0 until a hash has completed
+    private long estimatedWaitNanos() {
+        return executor.getQueue().size() * averageExecutionNanos / threads;
+    }
+
+    // Frees the queue slot of a task that has not started yet, so no worker runs it
+    private void giveUp(Future<?> future) {
+        future.cancel(false);
+        executor.remove((Runnable) future);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
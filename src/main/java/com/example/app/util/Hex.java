@@ -0,0 +1,58 @@
+package com.example.app.util;
+
+/**
+ * Lowercase hex encoding through a lookup table, and comparison of raw bytes against a
+ * hex string without decoding it first.
+ */
+public final class Hex {
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        java.util.Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            VALUES['a' + i] = (byte) (10 + i);
+            VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private Hex() {
+    }
+
+    public static String encode(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = DIGITS[(bytes[i] >> 4) & 0x0f];
+            chars[i * 2 + 1] = DIGITS[bytes[i] & 0x0f];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * True if {@code hex} encodes exactly {@code bytes}, in either case. Takes the same time
+     * wherever the first difference is; only the length is checked up front.
+     */
+    public static boolean equals(byte[] bytes, CharSequence hex) {
+        if (hex == null || hex.length() != bytes.length * 2) {
+            return false;
+        }
+
+        int diff = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            int high = value(hex.charAt(i * 2));
+            int low = value(hex.charAt(i * 2 + 1));
+            // An invalid digit is -1, which sets bits outside the low byte
+            diff |= (high | low) & ~0xff;
+            diff |= ((high << 4) | low) ^ (bytes[i] & 0xff);
+        }
+        return diff == 0;
+    }
+
+    private static int value(char c) {
+        return c < VALUES.length ? VALUES[c] : -1;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.app.util;
+
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base class for salted key-derivation hashers. Hashes are stored as
+ * {@code $<algorithmId>$<k=v,...>$<base64 salt>$<base64 hash>} so that every stored value
+ * carries the parameters needed to verify it, independent of the current configuration.
+ */
+public abstract class KdfPasswordHasher implements TunablePasswordHasher {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    protected static final int SALT_LENGTH = 16;
+    protected static final int HASH_LENGTH = 32;
+
+    @Override
+    public String hashPassword(String password) {
+        byte[] salt = new byte[SALT_LENGTH];
+        RANDOM.nextBytes(salt);
+        byte[] hash = derive(password, salt, HASH_LENGTH);
+
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return "$" + getAlgorithmId() + "$" + encodeParameters()
+                + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    @Override
+    public boolean validatePassword(String username, String inputPassword, String storedPasswordHash) {
+        if (inputPassword == null || storedPasswordHash == null) {
+            return false;
+        }
+
+        // "", id, parameters, salt, hash
+        String[] parts = storedPasswordHash.split("\\$");
+        if (parts.length != 5 || !parts[1].equals(getAlgorithmId())) {
+            return false;
+        }
+
+        byte[] salt;
+        byte[] expected;
+        KdfPasswordHasher stored;
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            salt = decoder.decode(parts[3]);
+            expected = decoder.decode(parts[4]);
+            stored = withParameters(parseParameters(parts[2]));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+
+        byte[] actual = stored.derive(inputPassword, salt, expected.length);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    @Override
+    public boolean needsRehash(String storedPasswordHash) {
+        if (storedPasswordHash == null) {
+            return true;
+        }
+
+        String[] parts = storedPasswordHash.split("\\$");
+        if (parts.length != 5 || !parts[1].equals(getAlgorithmId())) {
+            return true;
+        }
+
+        Map<String, Integer> stored;
+        try {
+            stored = parseParameters(parts[2]);
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+
+        // Every cost parameter grows with strength, so a hash written by a node calibrated
+        // higher than this one is kept rather than downgraded
+        for (Map.Entry<String, Integer> current : parseParameters(encodeParameters()).entrySet()) {
+            Integer value = stored.get(current.getKey());
+            if (value == null || value < current.getValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parameters in {@code k=v,k=v} form, written into the stored hash.
+     */
+    protected abstract String encodeParameters();
+
+    /**
+     * Returns a hasher configured with the parameters parsed from a stored hash.
+     */
+    protected abstract KdfPasswordHasher withParameters(Map<String, Integer> parameters);
+
+    protected abstract byte[] derive(String password, byte[] salt, int length);
+
+    protected static int requireParameter(Map<String, Integer> parameters, String name) {
+        Integer value = parameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing hash parameter: " + name);
+        }
+        return value;
+    }
+
+    private static Map<String, Integer> parseParameters(String encoded) {
+        Map<String, Integer> parameters = new HashMap<>();
+        for (String pair : encoded.split(",")) {
+            int separator = pair.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed hash parameter: " + pair);
+            }
+            parameters.put(pair.substring(0, separator), Integer.valueOf(pair.substring(separator + 1)));
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.app.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+
+/**
+ * Key-encryption key held in a local PKCS#12 keystore. Data keys are wrapped with AES key
+ * wrap (RFC 3394) before they are stored, so the database alone is not enough to read secrets.
+ */
+public class MasterKey {
+
+    private static final String KEYSTORE_TYPE = "PKCS12";
+    private static final String WRAP_ALGORITHM = "AESWrap";
+
+    private final SecretKey key;
+
+    public MasterKey(SecretKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Reads {@code alias} from the existing keystore at {@code path}.
+     */
+    public static MasterKey load(Path path, char[] password, String alias) throws IOException, GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance(KEYSTORE_TYPE);
+        try (InputStream in = Files.newInputStream(path)) {
+            keyStore.load(in, password);
+        }
+        KeyStore.Entry entry = keyStore.getEntry(alias, new KeyStore.PasswordProtection(password));
+        if (!(entry instanceof KeyStore.SecretKeyEntry)) {
+            throw new IllegalStateException("Keystore " + path + " has no secret key named " + alias);
+        }
+        return new MasterKey(((KeyStore.SecretKeyEntry) entry).getSecretKey());
+    }
+
+    /**
+     * Generates a random AES-256 key and stores it as {@code alias} in a new keystore at
+     * {@code path}. Fails if the file already exists, so an existing key is never replaced.
+     */
+    public static MasterKey create(Path path, char[] password, String alias) throws IOException, GeneralSecurityException {
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(256);
+        SecretKey key = generator.generateKey();
+
+        KeyStore keyStore = KeyStore.getInstance(KEYSTORE_TYPE);
+        keyStore.load(null, password);
+        keyStore.setEntry(alias, new KeyStore.SecretKeyEntry(key), new KeyStore.PasswordProtection(password));
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (OutputStream out = Files.newOutputStream(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            keyStore.store(out, password);
+        }
+        try {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX filesystem; rely on the directory's permissions
+        }
+        return new MasterKey(key);
+    }
+
+    public byte[] wrap(SecretKey dataKey) {
+        try {
+            Cipher cipher = Cipher.getInstance(WRAP_ALGORITHM);
+            cipher.init(Cipher.WRAP_MODE, key);
+            return cipher.wrap(dataKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error wrapping data key", e);
+        }
+    }
+
+    public SecretKey unwrap(byte[] wrappedKey) {
+        try {
+            Cipher cipher = Cipher.getInstance(WRAP_ALGORITHM);
+            cipher.init(Cipher.UNWRAP_MODE, key);
+            Key dataKey = cipher.unwrap(wrappedKey, "AES", Cipher.SECRET_KEY);
+            return (SecretKey) dataKey;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error unwrapping data key", e);
+        }
+    }
+}
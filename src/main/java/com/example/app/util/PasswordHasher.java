@@ -1,33 +1,16 @@
 package com.example.app.util;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+public interface PasswordHasher {
 
-public class PasswordHasher {
+    String hashPassword(String password);
 
-    private final String HASH_ALGORITHM = "SHA-256";
+    boolean validatePassword(String username, String inputPassword, String storedPasswordHash);
 
-    public String hashPassword(String password) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
-            byte[] hashedBytes = digest.digest(password.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hashedBytes) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Error hashing password", e);
-        }
-    }
-
-    public boolean validatePassword(String username, String inputPassword, String storedPasswordHash) {
-        String hashedInputPassword = hashPassword(inputPassword);
-        return hashedInputPassword.equals(storedPasswordHash);
+    /**
+     * True if the stored hash uses another algorithm than the current one, or a lower cost than
+     * the current parameters. Hashes that are already stronger are left alone.
+     */
+    default boolean needsRehash(String storedPasswordHash) {
+        return false;
     }
 }
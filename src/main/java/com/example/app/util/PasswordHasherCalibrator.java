@@ -0,0 +1,68 @@
+package com.example.app.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raises a hasher's work factor until one verification takes as long as the target on this host.
+ *
+ * Each candidate is warmed up and then timed several times; the median is compared against the
+ * target. The strongest candidate that stays within the target wins, and the starting
+ * configuration is treated as a floor that calibration never goes below.
+ */
+public final class PasswordHasherCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasherCalibrator.class);
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int MAX_STEPS = 24;
+
+    private PasswordHasherCalibrator() {
+    }
+
+    public static TunablePasswordHasher calibrate(TunablePasswordHasher floor, long targetMillis) {
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+
+        TunablePasswordHasher chosen = floor;
+        long chosenNanos = measure(floor);
+
+        TunablePasswordHasher candidate = floor;
+        for (int step = 0; step < MAX_STEPS && chosenNanos < targetNanos; step++) {
+            candidate = candidate.stronger();
+            long candidateNanos = measure(candidate);
+            if (candidateNanos > targetNanos) {
+                break;
+            }
+            chosen = candidate;
+            chosenNanos = candidateNanos;
+        }
+
+        log.info("Calibrated {} to {} ms per verification (target {} ms)",
+                chosen.getAlgorithmId(), TimeUnit.NANOSECONDS.toMillis(chosenNanos), targetMillis);
+        return chosen;
+    }
+
+    /**
+     * Median wall-clock time of one {@code validatePassword} call, in nanoseconds.
+     */
+    static long measure(PasswordHasher hasher) {
+        String hash = hasher.hashPassword(SAMPLE_PASSWORD);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            hasher.validatePassword(null, SAMPLE_PASSWORD, hash);
+        }
+
+        long[] samples = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            hasher.validatePassword(null, SAMPLE_PASSWORD, hash);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[MEASURED_ROUNDS / 2];
+    }
+}
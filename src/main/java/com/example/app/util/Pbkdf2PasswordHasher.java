@@ -0,0 +1,58 @@
+package com.example.app.util;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+
+public class Pbkdf2PasswordHasher extends KdfPasswordHasher {
+
+    public static final String ALGORITHM_ID = "pbkdf2-sha256";
+
+    private static final String KEY_ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    private final int iterations;
+
+    public Pbkdf2PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("PBKDF2 iterations must be positive");
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String getAlgorithmId() {
+        return ALGORITHM_ID;
+    }
+
+    @Override
+    public Pbkdf2PasswordHasher stronger() {
+        return new Pbkdf2PasswordHasher(iterations * 2);
+    }
+
+    @Override
+    protected String encodeParameters() {
+        return "i=" + iterations;
+    }
+
+    @Override
+    protected Pbkdf2PasswordHasher withParameters(Map<String, Integer> parameters) {
+        return new Pbkdf2PasswordHasher(requireParameter(parameters, "i"));
+    }
+
+    @Override
+    protected byte[] derive(String password, byte[] salt, int length) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, length * 8);
+        try {
+            return SecretKeyFactory.getInstance(KEY_ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Error hashing password", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
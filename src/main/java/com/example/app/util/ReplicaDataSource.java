@@ -0,0 +1,151 @@
+package com.example.app.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections to read replicas round-robin. A background check runs {@code lagQuery}
+ * (which returns the replication lag in milliseconds) on every replica; a replica whose lag is
+ * over {@code maxLagMillis}, whose check failed, or that has not been checked yet is skipped.
+ * When no replica qualifies the connection comes from the primary instead.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService lagChecker;
+
+    public ReplicaDataSource(DataSource primary, List<? extends DataSource> replicaDataSources, String lagQuery,
+                             long maxLagMillis, long checkIntervalMillis, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            Replica replica = new Replica(replicaDataSources.get(i));
+            replicas.add(replica);
+            String name = String.valueOf(i);
+            Gauge.builder("app.datasource.replica.lag", replica, r -> r.lagMillis)
+                    .description("Replication lag at the last check in milliseconds, NaN if the replica could not be checked")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            Gauge.builder("app.datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                    .description("Whether reads are currently routed to the replica")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        }
+
+        this.lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (checkIntervalMillis > 0) {
+            lagChecker.scheduleWithFixedDelay(this::checkLag, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = (start + i) % replicas.size();
+            Replica replica = replicas.get(index);
+            if (!replica.available) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                // Skip it until the next check says otherwise
+                replica.available = false;
+                log.warn("Could not connect to read replica {}, skipping it: {}", index, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Whether a read could currently go to a replica that was more than {@code lagMillis} behind
+     * at its last check. False when every read goes to the primary.
+     */
+    public boolean mayLagBy(long lagMillis) {
+        for (Replica replica : replicas) {
+            if (replica.available && replica.lagMillis > lagMillis) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    void checkLag() {
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(i);
+            boolean wasAvailable = replica.available;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxLagMillis)));
+                try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                    replica.lagMillis = resultSet.next() ? resultSet.getLong(1) : Double.NaN;
+                }
+            } catch (SQLException e) {
+                replica.lagMillis = Double.NaN;
+                if (wasAvailable) {
+                    log.warn("Replication lag check failed for read replica {}: {}", i, e.getMessage());
+                }
+            }
+
+            // NaN compares false, so an unknown lag also takes the replica out
+            replica.available = replica.lagMillis <= maxLagMillis;
+            if (wasAvailable && !replica.available && !Double.isNaN(replica.lagMillis)) {
+                log.warn("Read replica {} is {} ms behind, reading from the primary until it catches up", i, (long) replica.lagMillis);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        lagChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static class Replica {
+        private final DataSource dataSource;
+        private volatile double lagMillis = Double.NaN;
+        private volatile boolean available;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.app.util;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps reads served by lagging replicas out of the second-level cache. Read-only transactions
+ * may run on a replica that has not applied the latest writes yet; if one loaded an entity just
+ * after a write evicted it, the stale copy would be cached until it expired. While a replica in
+ * rotation was more than {@code maxLagMillis} behind at its last check, read-only transactions
+ * therefore use {@link CacheStoreMode#BYPASS}: they are still served from the entity and
+ * natural-id caches but never add to them. Otherwise, including whenever every read falls back
+ * to the primary, they fill the caches as usual. Natural ids also need
+ * {@link ReplicaReadRegionFactory}.
+ */
+public class ReplicaReadJpaDialect extends HibernateJpaDialect {
+
+    private final ReplicaDataSource replicaDataSource;
+    private final long maxLagMillis;
+
+    public ReplicaReadJpaDialect(ReplicaDataSource replicaDataSource, long maxLagMillis) {
+        this.replicaDataSource = replicaDataSource;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly() || !replicaDataSource.mayLagBy(maxLagMillis)) {
+            return transactionData;
+        }
+        // Set as an entity manager property rather than a session cache mode: find() with hints,
+        // which Spring Data uses, recomputes the cache mode from the properties
+        Object previousStoreMode = entityManager.getProperties().get(SpecHints.HINT_SPEC_CACHE_STORE_MODE);
+        entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        return new ReadOnlyTransactionData(transactionData, entityManager, previousStoreMode);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReadOnlyTransactionData readOnly) {
+            if (readOnly.previousStoreMode != null && readOnly.entityManager.isOpen()) {
+                readOnly.entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, readOnly.previousStoreMode);
+            }
+            transactionData = readOnly.transactionData;
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    private record ReadOnlyTransactionData(Object transactionData, EntityManager entityManager, Object previousStoreMode) {
+    }
+}
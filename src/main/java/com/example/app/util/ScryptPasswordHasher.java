@@ -0,0 +1,56 @@
+package com.example.app.util;
+
+import org.bouncycastle.crypto.generators.SCrypt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class ScryptPasswordHasher extends KdfPasswordHasher {
+
+    public static final String ALGORITHM_ID = "scrypt";
+
+    // Cost N is always a power of two, so it is stored as its base-2 logarithm
+    private final int log2N;
+    private final int blockSize;
+    private final int parallelism;
+
+    public ScryptPasswordHasher(int log2N, int blockSize, int parallelism) {
+        if (log2N < 1 || log2N > 30 || blockSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Invalid scrypt parameters");
+        }
+        this.log2N = log2N;
+        this.blockSize = blockSize;
+        this.parallelism = parallelism;
+    }
+
+    public int getLog2N() {
+        return log2N;
+    }
+
+    @Override
+    public String getAlgorithmId() {
+        return ALGORITHM_ID;
+    }
+
+    @Override
+    public ScryptPasswordHasher stronger() {
+        return new ScryptPasswordHasher(log2N + 1, blockSize, parallelism);
+    }
+
+    @Override
+    protected String encodeParameters() {
+        return "ln=" + log2N + ",r=" + blockSize + ",p=" + parallelism;
+    }
+
+    @Override
+    protected ScryptPasswordHasher withParameters(Map<String, Integer> parameters) {
+        return new ScryptPasswordHasher(requireParameter(parameters, "ln"),
+                requireParameter(parameters, "r"),
+                requireParameter(parameters, "p"));
+    }
+
+    @Override
+    protected byte[] derive(String password, byte[] salt, int length) {
+        return SCrypt.generate(password.getBytes(StandardCharsets.UTF_8), salt, 1 << log2N, blockSize, parallelism, length);
+    }
+}
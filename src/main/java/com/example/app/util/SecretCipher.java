@@ -0,0 +1,81 @@
+package com.example.app.util;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * AES-256-GCM for individual stored secrets, encoded as {@code gcm1:base64(nonce || ciphertext || tag)}.
+ *
+ * {@link Cipher} instances are comparatively expensive to look up, so a few are shared and
+ * re-initialised with a fresh nonce per call. They are pooled rather than kept per thread
+ * because with a virtual thread per request almost every call would run on a new thread.
+ */
+public final class SecretCipher {
+
+    public static final String PREFIX = "gcm1:";
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // Calls that find the pool empty create a cipher; ones returning to a full pool drop theirs
+    private static final BlockingQueue<Cipher> CIPHERS =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+
+    private SecretCipher() {
+    }
+
+    public static boolean isEncrypted(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    public static String encrypt(SecretKey key, String plaintext) {
+        byte[] input = plaintext.getBytes(StandardCharsets.UTF_8);
+        byte[] nonce = new byte[NONCE_LENGTH];
+        RANDOM.nextBytes(nonce);
+
+        try {
+            Cipher cipher = borrow();
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, nonce));
+            byte[] output = new byte[NONCE_LENGTH + cipher.getOutputSize(input.length)];
+            System.arraycopy(nonce, 0, output, 0, NONCE_LENGTH);
+            cipher.doFinal(input, 0, input.length, output, NONCE_LENGTH);
+            CIPHERS.offer(cipher);
+            return PREFIX + Base64.getEncoder().encodeToString(output);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error encrypting secret", e);
+        }
+    }
+
+    public static String decrypt(SecretKey key, String stored) {
+        byte[] input = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+        if (input.length < NONCE_LENGTH + TAG_BITS / 8) {
+            throw new IllegalStateException("Stored secret is truncated");
+        }
+
+        try {
+            Cipher cipher = borrow();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, input, 0, NONCE_LENGTH));
+            byte[] plaintext = cipher.doFinal(input, NONCE_LENGTH, input.length - NONCE_LENGTH);
+            CIPHERS.offer(cipher);
+            return new String(plaintext, StandardCharsets.UTF_8);
+        } catch (AEADBadTagException e) {
+            throw new IllegalStateException("Stored secret failed authentication", e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error decrypting secret", e);
+        }
+    }
+
+    // A cipher that threw is not returned to the pool
+    private static Cipher borrow() throws GeneralSecurityException {
+        Cipher cipher = CIPHERS.poll();
+        return cipher != null ? cipher : Cipher.getInstance("AES/GCM/NoPadding");
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.app.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads vault entries one at a time from a JSON array of
+ * {@code {"serviceName": ..., "servicePassword": ...}} objects, or from CSV with the columns
+ * {@code serviceName,servicePassword} (header optional, RFC 4180 quoting). Nothing beyond the
+ * current row is buffered, so arbitrarily large imports can be consumed as a stream.
+ *
+ * Malformed input surfaces as {@link IllegalArgumentException} from {@link #next()}.
+ */
+public abstract class ServicePasswordImportReader implements Iterator<ServicePasswordImportReader.Row>, Closeable {
+
+    private Row next;
+    private boolean finished;
+    private int rowNumber;
+
+    public static ServicePasswordImportReader json(InputStream in, ObjectMapper objectMapper) throws IOException {
+        return new JsonReader(objectMapper.getFactory().createParser(in), objectMapper);
+    }
+
+    public static ServicePasswordImportReader csv(InputStream in) {
+        return new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = readRow(rowNumber + 1);
+            } catch (IOException e) {
+                finished = true;
+                throw new IllegalArgumentException("Malformed import at row " + (rowNumber + 1) + ": " + e.getMessage(), e);
+            }
+            finished = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Row row = next;
+        next = null;
+        rowNumber = row.getRowNumber();
+        return row;
+    }
+
+    /**
+     * Returns the next row, or null at the end of input.
+     */
+    protected abstract Row readRow(int rowNumber) throws IOException;
+
+    public static class Row {
+        private final int rowNumber;
+        private final String serviceName;
+        private final String servicePassword;
+
+        public Row(int rowNumber, String serviceName, String servicePassword) {
+            this.rowNumber = rowNumber;
+            this.serviceName = serviceName;
+            this.servicePassword = servicePassword;
+        }
+
+        public int getRowNumber() {
+            return rowNumber;
+        }
+
+        public String getServiceName() {
+            return serviceName;
+        }
+
+        public String getServicePassword() {
+            return servicePassword;
+        }
+    }
+
+    private static class JsonReader extends ServicePasswordImportReader {
+        private final JsonParser parser;
+        private final ObjectMapper objectMapper;
+        private boolean started;
+
+        private JsonReader(JsonParser parser, ObjectMapper objectMapper) {
+            this.parser = parser;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        protected Row readRow(int rowNumber) throws IOException {
+            if (!started) {
+                started = true;
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("expected a JSON array");
+                }
+            }
+
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY || token == null) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("expected an object");
+            }
+
+            JsonNode node = objectMapper.readTree(parser);
+            return new Row(rowNumber, text(node, "serviceName"), text(node, "servicePassword"));
+        }
+
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    private static class CsvReader extends ServicePasswordImportReader {
+        private final BufferedReader reader;
+        private boolean headerChecked;
+        private boolean eof;
+
+        private CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        protected Row readRow(int rowNumber) throws IOException {
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isEmpty());
+
+            if (!headerChecked) {
+                headerChecked = true;
+                if (fields.size() == 2 && fields.get(0).trim().equalsIgnoreCase("serviceName")
+                        && fields.get(1).trim().equalsIgnoreCase("servicePassword")) {
+                    return readRow(rowNumber);
+                }
+            }
+
+            if (fields.size() != 2) {
+                return new Row(rowNumber, null, null);
+            }
+            return new Row(rowNumber, fields.get(0), fields.get(1));
+        }
+
+        // One RFC 4180 record; quoted fields may contain commas, doubled quotes and line breaks
+        private List<String> readRecord() throws IOException {
+            if (eof) {
+                return null;
+            }
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+
+            while (true) {
+                int c = reader.read();
+                if (c < 0) {
+                    eof = true;
+                    if (quoted) {
+                        throw new IOException("unterminated quoted field");
+                    }
+                    if (!any) {
+                        return null;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                }
+                any = true;
+
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.app.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The original unsalted SHA-256 scheme, stored as bare lowercase hex. Kept so that hashes
+ * written before the move to salted KDFs still verify.
+ */
+public class Sha256PasswordHasher implements PasswordHasher {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    // getInstance() does a provider lookup and builds a new engine each time; keep one per thread
+    private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Error hashing password", e);
+        }
+    });
+
+    @Override
+    public String hashPassword(String password) {
+        return Hex.encode(digest(password));
+    }
+
+    // Compares raw digest bytes with the stored hex in constant time, without building a hex string
+    @Override
+    public boolean validatePassword(String username, String inputPassword, String storedPasswordHash) {
+        return Hex.equals(digest(inputPassword), storedPasswordHash);
+    }
+
+    private byte[] digest(String password) {
+        MessageDigest digest = DIGESTS.get();
+        // digest() resets on completion; this covers a previous call that failed part-way
+        digest.reset();
+        return digest.digest(password.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.app.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports JDBC statements that take longer than {@code thresholdMillis}: each one is counted in
+ * {@code app.db.slow.queries} and a {@code sampleRate} fraction of them is logged with the SQL,
+ * the number of bound parameters, the duration and the repository method that ran it. Statements
+ * under the threshold cost two clock reads and a bind counter.
+ */
+public class SlowQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final ThreadLocal<String> currentRepositoryMethod = new ThreadLocal<>();
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final MeterRegistry meterRegistry;
+
+    public SlowQueryLog(long thresholdMillis, double sampleRate, MeterRegistry meterRegistry) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.sampleRate = sampleRate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public DataSource wrap(DataSource dataSource) {
+        return (DataSource) proxy(DataSource.class, dataSource, (method, args, target) -> {
+            Object result = invoke(method, target, args);
+            return result instanceof Connection ? wrapConnection((Connection) result) : result;
+        });
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) proxy(Connection.class, connection, (method, args, target) -> {
+            Object result = invoke(method, target, args);
+            if (!(result instanceof Statement)) {
+                return result;
+            }
+            // prepareStatement/prepareCall carry the SQL; plain statements get it on execute
+            String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+            return new StatementHandler((Statement) result, sql).proxy(method.getReturnType());
+        });
+    }
+
+    private void report(String sql, int binds, long nanos) {
+        String caller = callingRepositoryMethod();
+        Counter.builder("app.db.slow.queries")
+                .description("JDBC statements that took longer than the slow-query threshold")
+                .tag("caller", caller)
+                .register(meterRegistry)
+                .increment();
+        if (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.warn("Slow query: {} ms, {} binds, {}: {}", TimeUnit.NANOSECONDS.toMillis(nanos), binds, caller, sql);
+        }
+    }
+
+    // Spring Data repositories record themselves through RepositoryMethodInterceptor; for
+    // anything else the nearest application frame on the stack is used
+    private static String callingRepositoryMethod() {
+        String repositoryMethod = currentRepositoryMethod.get();
+        if (repositoryMethod != null) {
+            return repositoryMethod;
+        }
+        return StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith("com.example.app.")
+                        && frame.getDeclaringClass().getNestHost() != SlowQueryLog.class)
+                .findFirst()
+                .map(frame -> frame.getDeclaringClass().getSimpleName() + "." + enclosingMethodName(frame.getMethodName()))
+                .orElse("unknown"));
+    }
+
+    // lambda$insertBatch$2 -> insertBatch
+    private static String enclosingMethodName(String methodName) {
+        if (!methodName.startsWith("lambda$")) {
+            return methodName;
+        }
+        int end = methodName.indexOf('$', "lambda$".length());
+        return methodName.substring("lambda$".length(), end < 0 ? methodName.length() : end);
+    }
+
+    private class StatementHandler implements Handler {
+        private final Statement statement;
+        private final String sql;
+        private int binds;
+
+        private StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        private Object proxy(Class<?> type) {
+            return SlowQueryLog.proxy(type, statement, this);
+        }
+
+        @Override
+        public Object handle(Method method, Object[] args, Object target) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                // Every setter declared by PreparedStatement or CallableStatement binds a parameter
+                if (name.startsWith("set") && (method.getDeclaringClass() == PreparedStatement.class
+                        || method.getDeclaringClass() == CallableStatement.class)) {
+                    binds++;
+                }
+                return invoke(method, target, args);
+            }
+
+            long start = System.nanoTime();
+            try {
+                return invoke(method, target, args);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                if (elapsed >= thresholdNanos) {
+                    report(sql != null ? sql : args != null && args.length > 0 ? String.valueOf(args[0]) : "batch", binds, elapsed);
+                }
+                binds = 0;
+            }
+        }
+    }
+
+    /**
+     * Records which repository method is running, for the slow-query log. Added to every Spring
+     * Data repository proxy.
+     */
+    public static class RepositoryMethodInterceptor implements MethodInterceptor {
+        private final Class<?> repositoryInterface;
+        private final Map<Method, String> names = new ConcurrentHashMap<>();
+
+        public RepositoryMethodInterceptor(Class<?> repositoryInterface) {
+            this.repositoryInterface = repositoryInterface;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            String previous = currentRepositoryMethod.get();
+            currentRepositoryMethod.set(names.computeIfAbsent(invocation.getMethod(),
+                    method -> repositoryInterface.getSimpleName() + "." + method.getName()));
+            try {
+                return invocation.proceed();
+            } finally {
+                currentRepositoryMethod.set(previous);
+            }
+        }
+    }
+
+    private interface Handler {
+        Object handle(Method method, Object[] args, Object target) throws Throwable;
+    }
+
+    private static Object proxy(Class<?> type, Object target, Handler handler) {
+        return Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return handler.handle(method, args, target);
+            }
+        });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.app.util;
+
+/**
+ * A password hasher whose work factor can be raised, so it can be calibrated against the host.
+ */
+public interface TunablePasswordHasher extends PasswordHasher {
+
+    /**
+     * Identifier written into every hash this hasher produces, e.g. {@code pbkdf2-sha256}.
+     */
+    String getAlgorithmId();
+
+    /**
+     * Returns a copy of this hasher that costs roughly twice as much per hash.
+     */
+    TunablePasswordHasher stronger();
+}
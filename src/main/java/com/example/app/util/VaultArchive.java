@@ -0,0 +1,339 @@
+package com.example.app.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Passphrase-encrypted container for vault exports.
+ *
+ * Layout: a header ({@code PMVA}, version, PBKDF2 salt and iteration count, nonce prefix)
+ * followed by length-prefixed AES-256-GCM segments of at most {@value #SEGMENT_SIZE} plaintext
+ * bytes. Each segment's nonce is the prefix, a segment counter and a final-segment flag, and the
+ * header is authenticated with every segment, so reordered, dropped or truncated segments fail
+ * to decrypt. Only one segment is buffered in either direction.
+ *
+ * Deriving the key costs as much as a password hash by design, so it runs on the
+ * {@link HashingExecutor} and is refused with the same 503 when the pool is saturated.
+ */
+public final class VaultArchive {
+
+    static final int SEGMENT_SIZE = 64 * 1024;
+
+    private static final byte[] MAGIC = {'P', 'M', 'V', 'A'};
+    private static final byte VERSION = 1;
+    private static final int SALT_LENGTH = 16;
+    private static final int NONCE_PREFIX_LENGTH = 7;
+    private static final int HEADER_LENGTH = MAGIC.length + 1 + SALT_LENGTH + 4 + NONCE_PREFIX_LENGTH;
+    private static final int TAG_BITS = 128;
+    private static final int TAG_LENGTH = TAG_BITS / 8;
+    private static final int DEFAULT_ITERATIONS = 210_000;
+    // The count comes from an untrusted header, so it may only buy a bounded amount of CPU
+    static final int MAX_ITERATIONS = 2 * DEFAULT_ITERATIONS;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private VaultArchive() {
+    }
+
+    /**
+     * Wraps {@code out} so that everything written is encrypted under {@code passphrase}.
+     * The archive is only complete once the returned stream is closed; a writer that fails part
+     * way must {@link EncryptingOutputStream#abort() abort} it first so it is never sealed.
+     */
+    public static EncryptingOutputStream encrypt(OutputStream out, char[] passphrase, HashingExecutor hashingExecutor)
+            throws IOException {
+        byte[] salt = new byte[SALT_LENGTH];
+        byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+        RANDOM.nextBytes(salt);
+        RANDOM.nextBytes(noncePrefix);
+
+        byte[] header = ByteBuffer.allocate(HEADER_LENGTH)
+                .put(MAGIC).put(VERSION).put(salt).putInt(DEFAULT_ITERATIONS).put(noncePrefix)
+                .array();
+        SecretKey key = deriveKey(passphrase, salt, DEFAULT_ITERATIONS, hashingExecutor);
+        out.write(header);
+        return new EncryptingOutputStream(out, key, header, noncePrefix);
+    }
+
+    /**
+     * Wraps {@code in} so that reads return the plaintext of an archive written by
+     * {@link #encrypt}. A wrong passphrase, tampering or truncation surfaces as a
+     * {@link CorruptArchiveException} from {@code read}, which can happen in any segment.
+     */
+    public static InputStream decrypt(InputStream in, char[] passphrase, HashingExecutor hashingExecutor) {
+        return new DecryptingInputStream(in, passphrase, hashingExecutor);
+    }
+
+    private static SecretKey deriveKey(char[] passphrase, byte[] salt, int iterations, HashingExecutor hashingExecutor)
+            throws IOException {
+        PBEKeySpec spec = new PBEKeySpec(passphrase, salt, iterations, 256);
+        try {
+            byte[] key = hashingExecutor.execute(() ->
+                    SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded());
+            return new SecretKeySpec(key, "AES");
+        } catch (IllegalStateException e) {
+            // The executor wraps checked exceptions thrown by the task
+            if (e.getCause() instanceof GeneralSecurityException) {
+                throw new IOException("Unable to derive archive key", e.getCause());
+            }
+            throw e;
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static byte[] nonce(byte[] noncePrefix, int segment, boolean last) {
+        return ByteBuffer.allocate(NONCE_PREFIX_LENGTH + 5)
+                .put(noncePrefix).putInt(segment).put((byte) (last ? 1 : 0))
+                .array();
+    }
+
+    private static Cipher newCipher() throws IOException {
+        try {
+            return Cipher.getInstance("AES/GCM/NoPadding");
+        } catch (GeneralSecurityException e) {
+            throw new IOException("AES-GCM is not available", e);
+        }
+    }
+
+    /**
+     * The stream returned by {@link #encrypt}.
+     */
+    public static final class EncryptingOutputStream extends FilterOutputStream {
+        private final SecretKey key;
+        private final byte[] header;
+        private final byte[] noncePrefix;
+        private final Cipher cipher;
+        private final byte[] plaintext = new byte[SEGMENT_SIZE];
+        private final byte[] ciphertext = new byte[SEGMENT_SIZE + TAG_LENGTH];
+        private int buffered;
+        private int segment;
+        private boolean closed;
+        private boolean aborted;
+
+        private EncryptingOutputStream(OutputStream out, SecretKey key, byte[] header, byte[] noncePrefix) throws IOException {
+            super(out);
+            this.key = key;
+            this.header = header;
+            this.noncePrefix = noncePrefix;
+            this.cipher = newCipher();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Archive already closed");
+            }
+            if (aborted) {
+                return;
+            }
+            while (len > 0) {
+                // A full buffer is sealed only once more data arrives; close() seals the final one
+                if (buffered == SEGMENT_SIZE) {
+                    writeSegment(false);
+                }
+                int n = Math.min(len, SEGMENT_SIZE - buffered);
+                System.arraycopy(b, off, plaintext, buffered, n);
+                buffered += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Segments are sealed on size or close; flushing early would only add tags
+            out.flush();
+        }
+
+        /**
+         * Gives up on the archive: later writes are dropped and {@link #close()} closes the
+         * underlying stream without sealing a final segment, so what was written so far reads
+         * back as truncated rather than as a complete, shorter archive.
+         */
+        public void abort() {
+            aborted = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (!aborted) {
+                    writeSegment(true);
+                    out.flush();
+                }
+            } finally {
+                out.close();
+            }
+        }
+
+        private void writeSegment(boolean last) throws IOException {
+            if (segment == Integer.MAX_VALUE) {
+                throw new IOException("Archive too large");
+            }
+            try {
+                cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, nonce(noncePrefix, segment++, last)));
+                cipher.updateAAD(header);
+                int length = cipher.doFinal(plaintext, 0, buffered, ciphertext, 0);
+                out.write(ByteBuffer.allocate(4).putInt(length).array());
+                out.write(ciphertext, 0, length);
+                buffered = 0;
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Unable to encrypt archive segment", e);
+            }
+        }
+    }
+
+    private static class DecryptingInputStream extends InputStream {
+        private final PushbackInputStream source;
+        private final DataInputStream in;
+        private final char[] passphrase;
+        private final HashingExecutor hashingExecutor;
+        private byte[] header;
+        private byte[] noncePrefix;
+        private SecretKey key;
+        private Cipher cipher;
+        private final byte[] ciphertext = new byte[SEGMENT_SIZE + TAG_LENGTH];
+        private final byte[] plaintext = new byte[SEGMENT_SIZE + TAG_LENGTH];
+        private int position;
+        private int limit;
+        private int segment;
+        private boolean finished;
+
+        private DecryptingInputStream(InputStream in, char[] passphrase, HashingExecutor hashingExecutor) {
+            this.source = new PushbackInputStream(in, 1);
+            this.in = new DataInputStream(source);
+            this.passphrase = passphrase.clone();
+            this.hashingExecutor = hashingExecutor;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (position == limit) {
+                if (finished) {
+                    return -1;
+                }
+                readSegment();
+            }
+            int n = Math.min(len, limit - position);
+            System.arraycopy(plaintext, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            Arrays.fill(passphrase, '\0');
+            in.close();
+        }
+
+        private void readHeader() throws IOException {
+            header = new byte[HEADER_LENGTH];
+            try {
+                in.readFully(header);
+            } catch (EOFException e) {
+                throw new CorruptArchiveException("Not a vault archive");
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(header);
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, MAGIC) || buffer.get() != VERSION) {
+                throw new CorruptArchiveException("Not a vault archive");
+            }
+            byte[] salt = new byte[SALT_LENGTH];
+            buffer.get(salt);
+            int iterations = buffer.getInt();
+            if (iterations < 1 || iterations > MAX_ITERATIONS) {
+                throw new CorruptArchiveException("Unsupported archive key parameters");
+            }
+            noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+            buffer.get(noncePrefix);
+
+            key = deriveKey(passphrase, salt, iterations, hashingExecutor);
+            Arrays.fill(passphrase, '\0');
+            cipher = newCipher();
+        }
+
+        private void readSegment() throws IOException {
+            if (header == null) {
+                readHeader();
+            }
+
+            int length;
+            try {
+                length = in.readInt();
+                if (length < TAG_LENGTH || length > ciphertext.length) {
+                    throw new CorruptArchiveException("Vault archive is corrupt");
+                }
+                in.readFully(ciphertext, 0, length);
+            } catch (EOFException e) {
+                throw new CorruptArchiveException("Vault archive is truncated");
+            }
+
+            // Only a segment sealed as final may be followed by end of input
+            boolean last = atEnd();
+            try {
+                cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, nonce(noncePrefix, segment++, last)));
+                cipher.updateAAD(header);
+                limit = cipher.doFinal(ciphertext, 0, length, plaintext, 0);
+                position = 0;
+                finished = last;
+            } catch (GeneralSecurityException e) {
+                throw new CorruptArchiveException("Vault archive is corrupt or the passphrase is wrong");
+            }
+        }
+
+        private boolean atEnd() throws IOException {
+            int next = source.read();
+            if (next < 0) {
+                return true;
+            }
+            source.unread(next);
+            return false;
+        }
+    }
+
+    /**
+     * The archive being read is not a vault archive, fails authentication or ends early.
+     */
+    @SuppressWarnings("serial")
+    public static class CorruptArchiveException extends IOException {
+        private CorruptArchiveException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+-- Tables as previously created by hibernate.ddl-auto=update. IF NOT EXISTS lets this run
+-- unchanged against databases that were bootstrapped that way.
+CREATE TABLE IF NOT EXISTS app_user (
+    id       BIGSERIAL PRIMARY KEY,
+    password VARCHAR(255),
+    username VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS service_password (
+    id           BIGSERIAL PRIMARY KEY,
+    password     VARCHAR(255),
+    service_name VARCHAR(255),
+    username     VARCHAR(255) NOT NULL
+);
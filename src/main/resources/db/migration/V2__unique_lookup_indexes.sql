@@ -0,0 +1,11 @@
+-- Every request resolves a user by username and a vault entry by (username, service_name).
+-- The composite index also serves findByUsername through its leading column.
+--
+-- Built CONCURRENTLY so existing tables stay writable while the index is created, which is
+-- why this migration runs outside a transaction (see the .conf file next to it). The build
+-- fails if duplicate rows already exist; they have to be cleaned up first.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_app_user_username
+    ON app_user (username);
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_service_password_username_service_name
+    ON service_password (username, service_name);
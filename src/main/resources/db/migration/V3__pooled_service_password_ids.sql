@@ -0,0 +1,5 @@
+-- ServicePassword ids now come from a pooled sequence generator (allocationSize = 50) so
+-- Hibernate can batch inserts. The sequence has to step by the same amount; the pooled
+-- optimizer treats each value as the top of a block of 50 ids, which never overlaps the
+-- ids already handed out one at a time.
+ALTER SEQUENCE service_password_id_seq INCREMENT BY 50;
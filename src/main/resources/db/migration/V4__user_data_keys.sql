@@ -0,0 +1,8 @@
+-- Per-user AES data keys, wrapped under the master key from the local keystore
+CREATE TABLE IF NOT EXISTS user_data_key (
+    username    VARCHAR(255) PRIMARY KEY,
+    wrapped_key BYTEA NOT NULL
+);
+
+-- Encrypted values are longer than the plaintext they replace; widening a varchar is catalog-only
+ALTER TABLE service_password ALTER COLUMN password TYPE VARCHAR(1024);
@@ -0,0 +1,4 @@
+-- Session tokens issued at or before this epoch millisecond are rejected (password change,
+-- logout). Kept on the user row so every node sees a revocation, not only the one that made it.
+-- A constant default makes this catalog-only.
+ALTER TABLE app_user ADD COLUMN IF NOT EXISTS tokens_valid_after BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Rows stored by a vault import carry its id, so an import that turns out to be forged or
+-- truncated can be undone with one delete instead of a list of every id it stored. Nullable
+-- with no default, so this is catalog-only.
+ALTER TABLE service_password ADD COLUMN IF NOT EXISTS import_id VARCHAR(36);
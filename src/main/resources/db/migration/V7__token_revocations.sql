@@ -0,0 +1,9 @@
+-- Session token revocations (password change, rename, deletion), polled by every node into
+-- memory so token checks never read the database. Rows older than the token lifetime no longer
+-- matter and are pruned, so the table stays small. app_user.tokens_valid_after is no longer
+-- read; it keeps its default so nodes still on the previous release go on working.
+CREATE TABLE IF NOT EXISTS token_revocation (
+    revoked_at BIGINT NOT NULL,
+    user_id    BIGINT NOT NULL,
+    PRIMARY KEY (revoked_at, user_id)
+);
@@ -0,0 +1,56 @@
+package com.example.app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DataSourceConfigTest {
+
+    private static final int COMPUTED_SIZE = Runtime.getRuntime().availableProcessors() * 2 + 1;
+
+    @Test
+    public void testConnectionPoolSizer_DefaultsToCoreCount() {
+        assertEquals(COMPUTED_SIZE, sizedPool(new MockEnvironment(), 0));
+    }
+
+    @Test
+    public void testConnectionPoolSizer_AppPoolSizeReplacesDefault() {
+        assertEquals(25, sizedPool(new MockEnvironment(), 25));
+    }
+
+    @Test
+    public void testConnectionPoolSizer_ExplicitHikariMaximumWins() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "100");
+
+        assertEquals(100, sizedPool(environment, 25));
+    }
+
+    @Test
+    public void testConnectionPoolSizer_ExplicitHikariMaximumFromEnvironmentVariableWins() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().replace(StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME,
+                new SystemEnvironmentPropertySource(StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME,
+                        Map.of("SPRING_DATASOURCE_HIKARI_MAXIMUMPOOLSIZE", "100")));
+
+        assertEquals(100, sizedPool(environment, 0));
+    }
+
+    // Binds spring.datasource.hikari onto the pool, as Boot does before post-processors run
+    private static int sizedPool(ConfigurableEnvironment environment, int poolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        BeanPostProcessor sizer = DataSourceConfig.connectionPoolSizer(environment, poolSize);
+        return ((HikariDataSource) sizer.postProcessBeforeInitialization(dataSource, "primaryDataSource")).getMaximumPoolSize();
+    }
+}
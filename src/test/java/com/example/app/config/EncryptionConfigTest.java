@@ -0,0 +1,64 @@
+package com.example.app.config;
+
+import com.example.app.repository.UserDataKeyRepository;
+import com.example.app.util.MasterKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EncryptionConfigTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final UserDataKeyRepository userDataKeyRepository = mock(UserDataKeyRepository.class);
+    private final EncryptionConfig config = new EncryptionConfig();
+    private Path keystore;
+
+    @BeforeEach
+    public void setUp() {
+        keystore = tempDir.resolve("master.p12");
+        ReflectionTestUtils.setField(config, "keystorePath", keystore.toString());
+        ReflectionTestUtils.setField(config, "keystorePassword", "pw");
+        ReflectionTestUtils.setField(config, "keyAlias", "vault-master");
+    }
+
+    @Test
+    public void testMasterKey_MissingKeystoreWithStoredKeysFails() {
+        ReflectionTestUtils.setField(config, "createIfMissing", true);
+        when(userDataKeyRepository.hasKeys()).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> config.masterKey(userDataKeyRepository));
+        assertFalse(Files.exists(keystore));
+    }
+
+    @Test
+    public void testMasterKey_MissingKeystoreWithoutCreateFlagFails() {
+        assertThrows(IllegalStateException.class, () -> config.masterKey(userDataKeyRepository));
+        assertFalse(Files.exists(keystore));
+    }
+
+    @Test
+    public void testMasterKey_CreateFlagCreatesKeystoreOnceForEmptyDatabase() throws Exception {
+        ReflectionTestUtils.setField(config, "createIfMissing", true);
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(256);
+        SecretKey dataKey = generator.generateKey();
+
+        byte[] wrapped = config.masterKey(userDataKeyRepository).wrap(dataKey);
+        when(userDataKeyRepository.hasKeys()).thenReturn(true);
+
+        // The next start loads the keystore it created instead of replacing it
+        assertArrayEquals(dataKey.getEncoded(), config.masterKey(userDataKeyRepository).unwrap(wrapped).getEncoded());
+    }
+}
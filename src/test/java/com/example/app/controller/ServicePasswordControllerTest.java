@@ -1,26 +1,50 @@
 package com.example.app.controller;
 
+import com.example.app.dto.CursorPage;
+import com.example.app.dto.ImportResult;
+import com.example.app.dto.ServiceSummary;
+import com.example.app.exception.HashingCapacityExceededException;
 import com.example.app.exception.ResourceNotFoundException;
 import com.example.app.model.ServicePassword;
 import com.example.app.repository.ServicePasswordRepository;
+import com.example.app.service.AuthMetrics;
+import com.example.app.service.AuthTokenService;
+import com.example.app.service.DataKeyService;
+import com.example.app.service.PasswordService;
 import com.example.app.service.UserService;
+import com.example.app.util.HashingExecutor;
+import com.example.app.util.ServicePasswordImportReader;
+import com.example.app.util.VaultArchive;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
-import org.springframework.web.util.NestedServletException;
 
+import jakarta.servlet.ServletException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -36,6 +60,24 @@ public class ServicePasswordControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private AuthTokenService authTokenService;
+
+    @Mock
+    private PasswordService passwordService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private DataKeyService dataKeyService;
+
+    @Spy
+    private AuthMetrics authMetrics = new AuthMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private HashingExecutor hashingExecutor = new HashingExecutor(1, 4, 30_000, new SimpleMeterRegistry());
+
     private MockMvc mockMvc;
     private ServicePassword servicePassword;
 
@@ -59,7 +101,7 @@ public class ServicePasswordControllerTest {
         request.put("servicePassword", "testpassword");
 
         when(userService.validateUser("testuser", "password")).thenReturn(true);
-        when(servicePasswordRepository.save(any(ServicePassword.class))).thenReturn(servicePassword);
+        when(servicePasswordRepository.saveAndFlush(any(ServicePassword.class))).thenReturn(servicePassword);
 
         mockMvc.perform(post("/api/pass-manager/add")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -69,7 +111,25 @@ public class ServicePasswordControllerTest {
                 .andExpect(jsonPath("$.serviceName").value("testservice"))
                 .andExpect(jsonPath("$.password").value("testpassword"));
 
-        verify(servicePasswordRepository).save(any(ServicePassword.class));
+        verify(servicePasswordRepository).saveAndFlush(any(ServicePassword.class));
+    }
+
+    @Test
+    public void testAddPassword_DuplicateService_Conflict() throws Exception {
+        Map<String, String> request = new HashMap<>();
+        request.put("username", "testuser");
+        request.put("password", "password");
+        request.put("serviceName", "testservice");
+        request.put("servicePassword", "testpassword");
+
+        when(userService.validateUser("testuser", "password")).thenReturn(true);
+        when(servicePasswordRepository.saveAndFlush(any(ServicePassword.class))).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException(), ServicePassword.UNIQUE_SERVICE_NAME)));
+
+        mockMvc.perform(post("/api/pass-manager/add")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(request)))
+                .andExpect(status().isConflict());
     }
 
     @Test
@@ -82,7 +142,7 @@ public class ServicePasswordControllerTest {
 
         when(userService.validateUser("testuser", "wrongpassword")).thenReturn(false);
 
-        Exception exception = assertThrows(NestedServletException.class, () -> {
+        Exception exception = assertThrows(ServletException.class, () -> {
             mockMvc.perform(post("/api/pass-manager/add")
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(new ObjectMapper().writeValueAsString(request)))
@@ -92,7 +152,7 @@ public class ServicePasswordControllerTest {
         assertTrue(exception.getCause() instanceof SecurityException);
         assertEquals("Invalid username or password", exception.getCause().getMessage());
 
-        verify(servicePasswordRepository, never()).save(any(ServicePassword.class));
+        verify(servicePasswordRepository, never()).saveAndFlush(any(ServicePassword.class));
     }
 
     @Test
@@ -112,7 +172,7 @@ public class ServicePasswordControllerTest {
     public void testGetPasswords_InvalidUser() throws Exception {
         when(userService.validateUser("testuser", "wrongpassword")).thenReturn(false);
 
-        Exception exception = assertThrows(NestedServletException.class, () -> {
+        Exception exception = assertThrows(ServletException.class, () -> {
             mockMvc.perform(get("/api/pass-manager/testuser")
                             .param("password", "wrongpassword"))
                     .andReturn();
@@ -130,17 +190,38 @@ public class ServicePasswordControllerTest {
         requestParams.put("servicePassword", "newpassword");
 
         when(userService.validateUser("testuser", "password")).thenReturn(true);
-        when(servicePasswordRepository.findByUsernameAndServiceName("testuser", "testservice"))
-                .thenReturn(Optional.of(servicePassword));
-        when(servicePasswordRepository.save(any(ServicePassword.class))).thenReturn(servicePassword);
+        when(dataKeyService.encrypt("testuser", "newpassword")).thenReturn("gcm1:sealed");
+        when(servicePasswordRepository.updateEncryptedPasswordByUsernameAndServiceName("testuser", "testservice", "gcm1:sealed"))
+                .thenReturn(Optional.of(7L));
 
         mockMvc.perform(put("/api/pass-manager/update/testservice")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(new ObjectMapper().writeValueAsString(requestParams)))
                 .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.serviceName").value("testservice"))
                 .andExpect(jsonPath("$.password").value("newpassword"));
 
-        verify(servicePasswordRepository).save(any(ServicePassword.class));
+        verify(servicePasswordRepository, never()).findByUsernameAndServiceName(anyString(), anyString());
+        verify(servicePasswordRepository, never()).save(any(ServicePassword.class));
+    }
+
+    @Test
+    public void testUpdatePassword_NotFound() throws Exception {
+        Map<String, String> requestParams = new HashMap<>();
+        requestParams.put("username", "testuser");
+        requestParams.put("password", "password");
+        requestParams.put("servicePassword", "newpassword");
+
+        when(userService.validateUser("testuser", "password")).thenReturn(true);
+        when(dataKeyService.encrypt("testuser", "newpassword")).thenReturn("gcm1:sealed");
+        when(servicePasswordRepository.updateEncryptedPasswordByUsernameAndServiceName("testuser", "testservice", "gcm1:sealed"))
+                .thenReturn(Optional.empty());
+
+        mockMvc.perform(put("/api/pass-manager/update/testservice")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(requestParams)))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -150,8 +231,7 @@ public class ServicePasswordControllerTest {
         requestParams.put("password", "password");
 
         when(userService.validateUser("testuser", "password")).thenReturn(true);
-        when(servicePasswordRepository.findByUsernameAndServiceName("testuser", "testservice"))
-                .thenReturn(Optional.of(servicePassword));
+        when(servicePasswordRepository.deleteByUsernameAndServiceName("testuser", "testservice")).thenReturn(1);
 
         mockMvc.perform(delete("/api/pass-manager/delete/testservice")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -159,5 +239,274 @@ public class ServicePasswordControllerTest {
                 .andExpect(status().isOk());
 
         verify(servicePasswordRepository).deleteByUsernameAndServiceName("testuser", "testservice");
+        verify(servicePasswordRepository, never()).findByUsernameAndServiceName(anyString(), anyString());
+    }
+
+    @Test
+    public void testDeletePassword_NotFound() throws Exception {
+        Map<String, String> requestParams = new HashMap<>();
+        requestParams.put("username", "testuser");
+        requestParams.put("password", "password");
+
+        when(userService.validateUser("testuser", "password")).thenReturn(true);
+        when(servicePasswordRepository.deleteByUsernameAndServiceName("testuser", "testservice")).thenReturn(0);
+
+        mockMvc.perform(delete("/api/pass-manager/delete/testservice")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(requestParams)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGetPasswords_WithToken() throws Exception {
+        when(authTokenService.isValid("Bearer token", "testuser")).thenReturn(true);
+        when(servicePasswordRepository.findByUsername("testuser")).thenReturn(Collections.singletonList(servicePassword));
+
+        mockMvc.perform(get("/api/pass-manager/testuser")
+                        .header("Authorization", "Bearer token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].serviceName").value("testservice"));
+
+        verify(userService, never()).validateUser(anyString(), anyString());
+    }
+
+    @Test
+    public void testGetPasswords_InvalidToken() throws Exception {
+        when(authTokenService.isValid("Bearer token", "testuser")).thenReturn(false);
+
+        Exception exception = assertThrows(ServletException.class, () -> {
+            mockMvc.perform(get("/api/pass-manager/testuser")
+                            .header("Authorization", "Bearer token"))
+                    .andReturn();
+        });
+
+        assertTrue(exception.getCause() instanceof SecurityException);
+        verify(servicePasswordRepository, never()).findByUsername(anyString());
+        verify(authMetrics).tokenCheck(false);
+    }
+
+    @Test
+    public void testGetPasswordPage_Success() throws Exception {
+        servicePassword.setId(7L);
+        when(userService.validateUser("testuser", "password")).thenReturn(true);
+        when(passwordService.getPasswordPage("testuser", 5L, 1))
+                .thenReturn(new CursorPage<>(Collections.singletonList(servicePassword), 7L));
+
+        mockMvc.perform(get("/api/pass-manager/testuser/page")
+                        .param("password", "password")
+                        .param("cursor", "5")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].serviceName").value("testservice"))
+                .andExpect(jsonPath("$.nextCursor").value(7));
+    }
+
+    @Test
+    public void testGetPasswordPage_LimitIsCapped() throws Exception {
+        when(userService.validateUser("testuser", "password")).thenReturn(true);
+        when(passwordService.getPasswordPage(eq("testuser"), any(), anyInt()))
+                .thenReturn(new CursorPage<>(Collections.emptyList(), null));
+
+        mockMvc.perform(get("/api/pass-manager/testuser/page")
+                        .param("password", "password")
+                        .param("limit", "1000000"))
+                .andExpect(status().isOk());
+
+        verify(passwordService).getPasswordPage("testuser", null, 1000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamPasswords_WritesNdjson() throws Exception {
+        ServicePassword second = new ServicePassword();
+        second.setUsername("testuser");
+        second.setServiceName("otherservice");
+        second.setPassword("otherpassword");
+
+        when(userService.validateUser("testuser", "password")).thenReturn(true);
+        doAnswer(invocation -> {
+            Consumer<ServicePassword> action = invocation.getArgument(1);
+            action.accept(servicePassword);
+            action.accept(second);
+            return null;
+        }).when(passwordService).forEachPassword(eq("testuser"), any(Consumer.class));
+
+        String body = mockMvc.perform(get("/api/pass-manager/testuser/stream")
+                        .param("password", "password"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"serviceName\":\"testservice\""));
+        assertTrue(lines[1].contains("\"serviceName\":\"otherservice\""));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportPasswords_Csv() throws Exception {
+        ImportResult result = new ImportResult();
+        result.recordImported(2);
+        List<String> imported = new ArrayList<>();
+
+        when(userService.validateUser("testuser", "password")).thenReturn(true);
+        when(passwordService.importPasswords(eq("testuser"), any(Iterator.class))).thenAnswer(invocation -> {
+            Iterator<ServicePasswordImportReader.Row> rows = invocation.getArgument(1);
+            rows.forEachRemaining(row -> imported.add(row.getServiceName()));
+            return result;
+        });
+
+        mockMvc.perform(post("/api/pass-manager/import")
+                        .param("username", "testuser")
+                        .param("password", "password")
+                        .contentType("text/csv")
+                        .content("serviceName,servicePassword\nmail,secret\nbank,\"a,b\"\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(0));
+
+        assertEquals(Arrays.asList("mail", "bank"), imported);
+    }
+
+    @Test
+    public void testImportPasswords_InvalidUser() throws Exception {
+        when(userService.validateUser("testuser", "wrong")).thenReturn(false);
+
+        Exception exception = assertThrows(ServletException.class, () -> {
+            mockMvc.perform(post("/api/pass-manager/import")
+                    .param("username", "testuser")
+                    .param("password", "wrong")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[]"));
+        });
+
+        assertTrue(exception.getCause() instanceof SecurityException);
+        verifyNoInteractions(passwordService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExportPasswords_ArchiveImportsBack() throws Exception {
+        when(userService.validateUser("testuser", "password")).thenReturn(true);
+        doAnswer(invocation -> {
+            invocation.<Consumer<ServicePassword>>getArgument(1).accept(servicePassword);
+            return null;
+        }).when(passwordService).forEachPassword(eq("testuser"), any(Consumer.class));
+
+        byte[] archive = mockMvc.perform(get("/api/pass-manager/testuser/export")
+                        .param("password", "password")
+                        .header("X-Vault-Passphrase", "passphrase"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.pass-manager.vault"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<String> imported = new ArrayList<>();
+        when(passwordService.importPasswords(eq("testuser"), any(Iterator.class))).thenAnswer(invocation -> {
+            Iterator<ServicePasswordImportReader.Row> rows = invocation.getArgument(1);
+            rows.forEachRemaining(row -> imported.add(row.getServiceName() + "=" + row.getServicePassword()));
+            return new ImportResult();
+        });
+
+        mockMvc.perform(post("/api/pass-manager/import")
+                        .param("username", "testuser")
+                        .param("password", "password")
+                        .header("X-Vault-Passphrase", "passphrase")
+                        .contentType("application/vnd.pass-manager.vault")
+                        .content(archive))
+                .andExpect(status().isOk());
+
+        assertEquals(Collections.singletonList("testservice=testpassword"), imported);
+    }
+
+    @Test
+    public void testExportPasswords_HashingPoolSaturated() throws Exception {
+        when(userService.validateUser("testuser", "password")).thenReturn(true);
+        doThrow(new HashingCapacityExceededException("Too many concurrent authentication requests"))
+                .when(hashingExecutor).execute(any());
+
+        mockMvc.perform(get("/api/pass-manager/testuser/export")
+                        .param("password", "password")
+                        .header("X-Vault-Passphrase", "passphrase"))
+                .andExpect(status().isServiceUnavailable());
+
+        verifyNoInteractions(passwordService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExportPasswords_FailurePartWayLeavesUnsealedArchive() throws Exception {
+        when(userService.validateUser("testuser", "password")).thenReturn(true);
+        doAnswer(invocation -> {
+            invocation.<Consumer<ServicePassword>>getArgument(1).accept(servicePassword);
+            throw new IllegalStateException("connection lost");
+        }).when(passwordService).forEachPassword(eq("testuser"), any(Consumer.class));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThrows(IllegalStateException.class, () -> servicePasswordController.exportPasswords(
+                "testuser", "password", null, "passphrase", response));
+
+        byte[] archive = response.getContentAsByteArray();
+        assertThrows(VaultArchive.CorruptArchiveException.class, () -> {
+            try (InputStream in = VaultArchive.decrypt(new ByteArrayInputStream(archive), "passphrase".toCharArray(), hashingExecutor)) {
+                in.readAllBytes();
+            }
+        });
+    }
+
+    @Test
+    public void testImportArchive_WrongPassphrase() throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (OutputStream out = VaultArchive.encrypt(archive, "passphrase".toCharArray(), hashingExecutor)) {
+            out.write("[]".getBytes());
+        }
+
+        when(userService.validateUser("testuser", "password")).thenReturn(true);
+
+        mockMvc.perform(post("/api/pass-manager/import")
+                        .param("username", "testuser")
+                        .param("password", "password")
+                        .header("X-Vault-Passphrase", "wrong")
+                        .contentType("application/vnd.pass-manager.vault")
+                        .content(archive.toByteArray()))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(passwordService);
+    }
+
+    @Test
+    public void testGetServices_OmitsPasswords() throws Exception {
+        when(userService.validateUser("testuser", "password")).thenReturn(true);
+        when(passwordService.getServiceSummaries("testuser"))
+                .thenReturn(Collections.singletonList(new ServiceSummary(1L, "testservice")));
+
+        mockMvc.perform(get("/api/pass-manager/testuser/services")
+                        .param("password", "password"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].serviceName").value("testservice"))
+                .andExpect(jsonPath("$[0].password").doesNotExist());
+    }
+
+    @Test
+    public void testGetService_ReturnsSingleSecret() throws Exception {
+        when(userService.validateUser("testuser", "password")).thenReturn(true);
+        when(passwordService.getPassword("testuser", "testservice")).thenReturn(servicePassword);
+
+        mockMvc.perform(get("/api/pass-manager/testuser/services/testservice")
+                        .param("password", "password"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.password").value("testpassword"));
+    }
+
+    @Test
+    public void testGetService_NotFound() throws Exception {
+        when(userService.validateUser("testuser", "password")).thenReturn(true);
+        when(passwordService.getPassword("testuser", "missing"))
+                .thenThrow(new ResourceNotFoundException("ServicePassword not found"));
+
+        mockMvc.perform(get("/api/pass-manager/testuser/services/missing")
+                        .param("password", "password"))
+                .andExpect(status().isNotFound());
     }
 }
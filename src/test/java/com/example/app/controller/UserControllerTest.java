@@ -1,6 +1,9 @@
 package com.example.app.controller;
 
+import com.example.app.dto.CursorPage;
+import com.example.app.dto.UserSummary;
 import com.example.app.model.User;
+import com.example.app.service.AuthTokenService;
 import com.example.app.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,8 +16,9 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -31,6 +35,9 @@ public class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private AuthTokenService authTokenService;
+
     private MockMvc mockMvc;
     private User user;
 
@@ -59,17 +66,49 @@ public class UserControllerTest {
     }
 
     @Test
-    public void testGetAllUsers_Success() throws Exception {
-        List<User> userList = new ArrayList<>();
-        userList.add(user);
+    public void testLogin_Success() throws Exception {
+        Map<String, String> request = new HashMap<>();
+        request.put("username", "testuser");
+        request.put("password", "password");
+
+        when(userService.login("testuser", "password")).thenReturn("signedtoken");
+        when(authTokenService.getTtlSeconds()).thenReturn(900L);
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("signedtoken"))
+                .andExpect(jsonPath("$.expiresIn").value(900));
+
+        verify(userService).login("testuser", "password");
+    }
+
+    @Test
+    public void testGetUsers_Success() throws Exception {
+        CursorPage<UserSummary> page = new CursorPage<>(Collections.singletonList(new UserSummary(1L, "testuser")), null);
 
-        when(userService.getAllUsers()).thenReturn(userList);
+        when(userService.getUsers(null, 100)).thenReturn(page);
 
         mockMvc.perform(get("/api/auth/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].username").value("testuser"));
+                .andExpect(jsonPath("$.items[0].username").value("testuser"))
+                .andExpect(jsonPath("$.items[0].password").doesNotExist());
+
+        verify(userService).getUsers(null, 100);
+    }
 
-        verify(userService).getAllUsers();
+    @Test
+    public void testGetUsers_WithCursor() throws Exception {
+        CursorPage<UserSummary> page = new CursorPage<>(Collections.singletonList(new UserSummary(11L, "testuser")), 11L);
+
+        when(userService.getUsers(10L, 1)).thenReturn(page);
+
+        mockMvc.perform(get("/api/auth/users")
+                        .param("cursor", "10")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value(11));
     }
 
     @Test
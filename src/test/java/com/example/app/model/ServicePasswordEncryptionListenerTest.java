@@ -0,0 +1,50 @@
+package com.example.app.model;
+
+import com.example.app.service.DataKeyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class ServicePasswordEncryptionListenerTest {
+
+    private final DataKeyService dataKeyService = mock(DataKeyService.class);
+    private final ServicePasswordEncryptionListener listener = new ServicePasswordEncryptionListener();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(listener, "dataKeyService", dataKeyService);
+        when(dataKeyService.decrypt(eq("testuser"), anyString()))
+                .thenAnswer(invocation -> invocation.<String>getArgument(1).replace("gcm1:", ""));
+    }
+
+    @Test
+    public void testEncrypt_LegacyPlaintextRowIsEncrypted() {
+        when(dataKeyService.encrypt("testuser", "legacy")).thenReturn("gcm1:legacy");
+        ServicePassword servicePassword = loaded("legacy");
+
+        listener.encrypt(servicePassword);
+
+        assertEquals("gcm1:legacy", servicePassword.getEncryptedPassword());
+    }
+
+    @Test
+    public void testEncrypt_EncryptedRowIsLeftAlone() {
+        ServicePassword servicePassword = loaded("gcm1:secret");
+
+        listener.encrypt(servicePassword);
+
+        assertEquals("gcm1:secret", servicePassword.getEncryptedPassword());
+        verify(dataKeyService, never()).encrypt(anyString(), anyString());
+    }
+
+    private ServicePassword loaded(String column) {
+        ServicePassword servicePassword = new ServicePassword();
+        servicePassword.setUsername("testuser");
+        servicePassword.setEncryptedPassword(column);
+        listener.decrypt(servicePassword);
+        return servicePassword;
+    }
+}
@@ -68,7 +68,9 @@ public class ServicePasswordRepositoryTest {
 
     @Test
     public void testDeleteByUsernameAndServiceName() {
-        servicePasswordRepository.deleteByUsernameAndServiceName("testuser", "testservice");
+        when(servicePasswordRepository.deleteByUsernameAndServiceName("testuser", "testservice")).thenReturn(1);
+
+        assertEquals(1, servicePasswordRepository.deleteByUsernameAndServiceName("testuser", "testservice"));
         verify(servicePasswordRepository).deleteByUsernameAndServiceName("testuser", "testservice");
     }
 
@@ -0,0 +1,79 @@
+package com.example.app.repository;
+
+import com.example.app.model.User;
+import com.example.app.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link UserNaturalIdRepositoryImpl} against a real session factory, complementing the mocked
+ * {@link UserNaturalIdRepositoryImplTest}.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+public class UserNaturalIdCacheTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = new User();
+        user.setUsername("user-" + UUID.randomUUID());
+        user.setPassword(PASSWORD);
+        user = userService.registerUser(user);
+    }
+
+    @Test
+    public void testFindByUsername_CacheHitRunsNoSql() {
+        userRepository.findByUsername(user.getUsername());
+        statistics.clear();
+
+        User found = userRepository.findByUsername(user.getUsername());
+
+        assertThat(found.getId()).isEqualTo(user.getId());
+        assertThat(statistics.getNaturalIdCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    public void testFindByUsername_FollowsRenameThroughUpdateUser() {
+        userRepository.findByUsername(user.getUsername());
+
+        User update = new User();
+        update.setUsername(user.getUsername() + "-renamed");
+        update.setPassword("newpassword123");
+        userService.updateUser(user.getUsername(), PASSWORD, update);
+        statistics.clear();
+
+        // The update itself cached the new name, so resolving it needs no query
+        assertThat(userRepository.findByUsername(update.getUsername()).getId()).isEqualTo(user.getId());
+        assertThat(statistics.getNaturalIdCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        assertThat(userRepository.findByUsername(user.getUsername())).isNull();
+    }
+}
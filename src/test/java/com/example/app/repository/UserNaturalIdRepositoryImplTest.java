@@ -0,0 +1,65 @@
+package com.example.app.repository;
+
+import com.example.app.model.User;
+import org.hibernate.Session;
+import org.hibernate.SimpleNaturalIdLoadAccess;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import jakarta.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class UserNaturalIdRepositoryImplTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private SimpleNaturalIdLoadAccess<User> loadAccess;
+
+    @InjectMocks
+    private UserNaturalIdRepositoryImpl repository;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        user = new User(1L);
+        user.setUsername("testuser");
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.bySimpleNaturalId(User.class)).thenReturn(loadAccess);
+    }
+
+    @Test
+    public void testFindByUsername_LoadsByNaturalId() {
+        when(loadAccess.load("testuser")).thenReturn(user);
+
+        assertSame(user, repository.findByUsername("testuser"));
+        assertTrue(repository.existsByUsername("testuser"));
+    }
+
+    @Test
+    public void testFindByUsername_UserNotFound() {
+        assertNull(repository.findByUsername("unknownuser"));
+        assertFalse(repository.existsByUsername("unknownuser"));
+    }
+
+    @Test
+    public void testFindByUsername_NullUsername() {
+        assertNull(repository.findByUsername(null));
+        verifyNoInteractions(entityManager);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.app.repository;
+
+import com.example.app.model.User;
+import com.example.app.service.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Second-level caching with a read replica: a second H2 database that holds a snapshot of the
+ * primary and so lags behind every write made after it. The lag it reports comes from its
+ * replica_lag table.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.replica.urls=" + UserReplicaCacheTest.REPLICA_URL,
+        "app.datasource.replica.lag-query=select millis from replica_lag",
+        "app.datasource.replica.check-interval-ms=100"
+})
+@ActiveProfiles("h2")
+public class UserReplicaCacheTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:user-replica-cache;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final String PASSWORD = "password123";
+    private static final String SNAPSHOT = "target/user-replica-cache.sql";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private JdbcTemplate replica;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = new User();
+        user.setUsername("user-" + UUID.randomUUID());
+        user.setPassword(PASSWORD);
+        user = userService.registerUser(user);
+
+        new JdbcTemplate(primaryDataSource).execute("script to '" + SNAPSHOT + "'");
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("drop all objects");
+        replica.execute("runscript from '" + SNAPSHOT + "'");
+        replica.execute("create table replica_lag (millis bigint)");
+        replica.execute("insert into replica_lag values (0)");
+    }
+
+    // The cache regions are shared by every application context in the JVM, and this context's
+    // database reuses the ids of the others
+    @AfterEach
+    public void tearDown() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    public void testReadOnlyReadsFromLaggingReplica_StaleRowsNotCached() {
+        setReplicaLag(500);
+        bulkUpdatePassword("$bulk$updated");
+        statistics.clear();
+
+        // Both reads are served by the replica, which has not seen the update
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getPassword()).isEqualTo(user.getPassword());
+        assertThat(userRepository.findByUsername(user.getUsername()).getPassword()).isEqualTo(user.getPassword());
+
+        assertThat(entityManagerFactory.getCache().contains(User.class, user.getId())).isFalse();
+        assertThat(statistics.getSecondLevelCachePutCount()).isZero();
+
+        // Nor was the natural id cached: the next lookup, on the primary, has to resolve it
+        statistics.clear();
+        User current = transactionTemplate.execute(status -> userRepository.findByUsername(user.getUsername()));
+        assertThat(current.getPassword()).isEqualTo("$bulk$updated");
+        assertThat(statistics.getNaturalIdCacheHitCount()).isZero();
+        assertThat(statistics.getNaturalIdCacheMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testReadOnlyReadsFromCaughtUpReplica_FillCache() {
+        setReplicaLag(0);
+        statistics.clear();
+
+        userRepository.findById(user.getId()).orElseThrow();
+
+        assertThat(entityManagerFactory.getCache().contains(User.class, user.getId())).isTrue();
+        assertThat(statistics.getSecondLevelCachePutCount()).isPositive();
+    }
+
+    @Test
+    public void testReadWriteTransaction_ReadsPrimaryAndFillsCache() {
+        setReplicaLag(500);
+        bulkUpdatePassword("$bulk$updated");
+
+        User loaded = transactionTemplate.execute(status -> userRepository.findById(user.getId()).orElseThrow());
+
+        assertThat(loaded.getPassword()).isEqualTo("$bulk$updated");
+        assertThat(entityManagerFactory.getCache().contains(User.class, user.getId())).isTrue();
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getPassword()).isEqualTo("$bulk$updated");
+    }
+
+    // Waits until a lag check has seen the new value and left the replica in rotation
+    private void setReplicaLag(long millis) {
+        replica.update("update replica_lag set millis = ?", millis);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("app.datasource.replica.lag").gauge().value() != millis
+                || meterRegistry.get("app.datasource.replica.available").gauge().value() != 1) {
+            assertThat(System.currentTimeMillis()).as("replica lag check").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    // A bulk update, which clears the whole User region
+    private void bulkUpdatePassword(String hash) {
+        transactionTemplate.executeWithoutResult(status -> entityManager
+                .createQuery("update User u set u.password = :hash where u.id = :id")
+                .setParameter("hash", hash)
+                .setParameter("id", user.getId())
+                .executeUpdate());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.app.repository;
+
+import com.example.app.model.User;
+import com.example.app.service.AuthTokenService;
+import com.example.app.service.PasswordRehashService;
+import com.example.app.service.UserService;
+import com.example.app.util.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+public class UserSecondLevelCacheTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = register();
+    }
+
+    @Test
+    public void testFindById_SecondReadServedFromCache() {
+        userRepository.findById(user.getId());
+        statistics.clear();
+
+        userRepository.findById(user.getId());
+
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    public void testUpdateUser_CachedUserAndTokensInvalidated() {
+        String token = authTokenService.issueToken(cached(user.getId()));
+
+        User update = new User();
+        update.setUsername(user.getUsername() + "-renamed");
+        update.setPassword("newpassword123");
+        userService.updateUser(user.getUsername(), PASSWORD, update);
+
+        User reloaded = cached(user.getId());
+        assertThat(reloaded.getUsername()).isEqualTo(update.getUsername());
+        assertThat(reloaded.getPassword()).isNotEqualTo(user.getPassword());
+        assertThat(authTokenService.isValid(token, update.getUsername())).isFalse();
+        assertThat(userRepository.findByUsername(user.getUsername())).isNull();
+    }
+
+    @Test
+    public void testDeleteUser_CachedUserEvicted() {
+        cached(user.getId());
+
+        userService.deleteUser(user.getUsername(), PASSWORD);
+
+        assertThat(userRepository.findById(user.getId())).isEmpty();
+        assertThat(userRepository.findByUsername(user.getUsername())).isNull();
+    }
+
+    @Test
+    public void testRehash_ReplacesOnlyThatUsersEntry() {
+        User other = register();
+        cached(other.getId());
+        cached(user.getId());
+        // Called directly rather than through the @Async proxy
+        PasswordRehashService rehashService = new PasswordRehashService(userRepository, passwordHasher,
+                transactionTemplate, new SimpleMeterRegistry());
+
+        rehashService.rehash(user.getId(), PASSWORD, user.getPassword());
+
+        assertThat(entityManagerFactory.getCache().contains(User.class, other.getId())).isTrue();
+        statistics.clear();
+        assertThat(cached(user.getId()).getPassword()).isNotEqualTo(user.getPassword());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    private User register() {
+        User newUser = new User();
+        newUser.setUsername("user-" + UUID.randomUUID());
+        newUser.setPassword(PASSWORD);
+        return userService.registerUser(newUser);
+    }
+
+    // Loads the user in its own session, which puts it in the second-level cache
+    private User cached(Long id) {
+        User loaded = userRepository.findById(id).orElseThrow();
+        assertThat(entityManagerFactory.getCache().contains(User.class, id)).isTrue();
+        return loaded;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.app.service;
+
+import com.example.app.model.User;
+import com.example.app.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AuthTokenServiceTest {
+
+    private final TokenRevocationRepository tokenRevocationRepository = mock(TokenRevocationRepository.class);
+    private AuthTokenService authTokenService;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        authTokenService = new AuthTokenService("", 900, tokenRevocationRepository);
+        user = new User(1L);
+        user.setUsername("testuser");
+    }
+
+    @Test
+    public void testIssuedTokenIsValid() {
+        String token = authTokenService.issueToken(user);
+
+        assertTrue(authTokenService.isValid(token, "testuser"));
+        assertTrue(authTokenService.isValid("Bearer " + token, "testuser"));
+        verifyNoInteractions(tokenRevocationRepository);
+    }
+
+    @Test
+    public void testTokenIsBoundToUsername() {
+        String token = authTokenService.issueToken(user);
+
+        assertFalse(authTokenService.isValid(token, "otheruser"));
+    }
+
+    @Test
+    public void testTamperedTokenIsRejected() {
+        String token = authTokenService.issueToken(user);
+        String tampered = "x" + token.substring(1);
+
+        assertFalse(authTokenService.isValid(tampered, "testuser"));
+        assertFalse(authTokenService.isValid("not-a-token", "testuser"));
+    }
+
+    @Test
+    public void testTokenFromOtherKeyIsRejected() {
+        String token = new AuthTokenService("", 900, tokenRevocationRepository).issueToken(user);
+
+        assertFalse(authTokenService.isValid(token, "testuser"));
+    }
+
+    @Test
+    public void testExpiredTokenIsRejected() {
+        AuthTokenService expiringService = new AuthTokenService("", 0, tokenRevocationRepository);
+        String token = expiringService.issueToken(user);
+
+        assertFalse(expiringService.isValid(token, "testuser"));
+    }
+
+    @Test
+    public void testRevokedTokenIsRejected() throws InterruptedException {
+        String token = authTokenService.issueToken(user);
+        Thread.sleep(2);
+        authTokenService.revoke(user);
+
+        assertFalse(authTokenService.isValid(token, "testuser"));
+        verify(tokenRevocationRepository).insert(eq(1L), anyLong());
+    }
+
+    @Test
+    public void testTokenIssuedAfterRevocationIsValid() throws InterruptedException {
+        authTokenService.revoke(user);
+        Thread.sleep(2);
+
+        assertTrue(authTokenService.isValid(authTokenService.issueToken(user), "testuser"));
+    }
+
+    @Test
+    public void testRevocationFromAnotherNodeIsPolled() throws InterruptedException {
+        String token = authTokenService.issueToken(user);
+        Thread.sleep(2);
+        when(tokenRevocationRepository.findRevokedAfter(anyLong())).thenReturn(Map.of(1L, System.currentTimeMillis()));
+
+        assertTrue(authTokenService.isValid(token, "testuser"));
+        authTokenService.refreshRevocations();
+
+        assertFalse(authTokenService.isValid(token, "testuser"));
+    }
+
+    @Test
+    public void testRefreshForgetsRevocationsOlderThanTokens() {
+        AuthTokenService expiringService = new AuthTokenService("", 0, tokenRevocationRepository);
+        long before = System.currentTimeMillis();
+        expiringService.revoke(user);
+
+        expiringService.refreshRevocations();
+
+        verify(tokenRevocationRepository).deleteRevokedUpTo(longThat(cutoff -> cutoff >= before));
+        // Nothing left to reject: with a zero lifetime every revocation is already past the cutoff
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(expiringService, "revocations")).isEmpty());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CredentialCacheTest {
+
+    private static final String HASH = "$pbkdf2-sha256$stored";
+
+    private CredentialCache credentialCache;
+
+    @BeforeEach
+    public void setUp() {
+        credentialCache = new CredentialCache(2, 60);
+    }
+
+    @Test
+    public void testPutThenVerify() {
+        credentialCache.put("testuser", "password", HASH, credentialCache.stamp());
+
+        assertTrue(credentialCache.isVerified("testuser", "password", HASH));
+        assertFalse(credentialCache.isVerified("testuser", "otherpassword", HASH));
+        assertEquals(1, credentialCache.getHits());
+        assertEquals(1, credentialCache.getMisses());
+    }
+
+    @Test
+    public void testChangedStoredHashIsNotVerified() {
+        credentialCache.put("testuser", "password", HASH, credentialCache.stamp());
+
+        // As after a password change on another node
+        assertFalse(credentialCache.isVerified("testuser", "password", "$pbkdf2-sha256$changed"));
+    }
+
+    @Test
+    public void testInvalidate() {
+        credentialCache.put("testuser", "password", HASH, credentialCache.stamp());
+        credentialCache.invalidate("testuser");
+
+        assertFalse(credentialCache.isVerified("testuser", "password", HASH));
+    }
+
+    @Test
+    public void testPutWithStaleStampIsIgnored() {
+        long stamp = credentialCache.stamp();
+        credentialCache.invalidate("testuser");
+        credentialCache.put("testuser", "password", HASH, stamp);
+
+        assertFalse(credentialCache.isVerified("testuser", "password", HASH));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        credentialCache.put("user1", "password", HASH, credentialCache.stamp());
+        credentialCache.put("user2", "password", HASH, credentialCache.stamp());
+        credentialCache.isVerified("user1", "password", HASH);
+        credentialCache.put("user3", "password", HASH, credentialCache.stamp());
+
+        assertEquals(2, credentialCache.size());
+        assertTrue(credentialCache.isVerified("user1", "password", HASH));
+        assertFalse(credentialCache.isVerified("user2", "password", HASH));
+    }
+
+    @Test
+    public void testExpiredEntryIsNotVerified() {
+        CredentialCache expiringCache = new CredentialCache(10, 0);
+        expiringCache.put("testuser", "password", HASH, expiringCache.stamp());
+
+        assertFalse(expiringCache.isVerified("testuser", "password", HASH));
+    }
+}
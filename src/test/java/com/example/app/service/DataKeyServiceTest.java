@@ -0,0 +1,109 @@
+package com.example.app.service;
+
+import com.example.app.repository.UserDataKeyRepository;
+import com.example.app.util.MasterKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.KeyGenerator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class DataKeyServiceTest {
+
+    private UserDataKeyRepository userDataKeyRepository;
+    private DataKeyService dataKeyService;
+    private final Map<String, byte[]> storedKeys = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(256);
+        MasterKey masterKey = new MasterKey(generator.generateKey());
+
+        userDataKeyRepository = mock(UserDataKeyRepository.class);
+        when(userDataKeyRepository.findWrappedKey(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(storedKeys.get(invocation.<String>getArgument(0))));
+        doAnswer(invocation -> storedKeys.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(userDataKeyRepository).insertIfAbsent(anyString(), any(byte[].class));
+
+        dataKeyService = new DataKeyService(masterKey, userDataKeyRepository, 2);
+    }
+
+    @Test
+    public void testRoundTrip_CreatesKeyOnFirstWrite() {
+        String encrypted = dataKeyService.encrypt("alice", "s3cret");
+
+        assertTrue(encrypted.startsWith("gcm1:"));
+        assertFalse(encrypted.contains("s3cret"));
+        assertEquals("s3cret", dataKeyService.decrypt("alice", encrypted));
+        verify(userDataKeyRepository).insertIfAbsent(eq("alice"), any(byte[].class));
+    }
+
+    @Test
+    public void testEncrypt_FreshNoncePerValue() {
+        assertNotEquals(dataKeyService.encrypt("alice", "same"), dataKeyService.encrypt("alice", "same"));
+    }
+
+    @Test
+    public void testDecrypt_UsesCachedKey() {
+        String encrypted = dataKeyService.encrypt("alice", "s3cret");
+        for (int i = 0; i < 10; i++) {
+            dataKeyService.decrypt("alice", encrypted);
+        }
+
+        verify(userDataKeyRepository, times(2)).findWrappedKey("alice");
+    }
+
+    @Test
+    public void testLoadKey_LaterCallsStayInMemory() {
+        assertFalse(dataKeyService.isKeyLoaded("alice"));
+
+        dataKeyService.loadKey("alice");
+        assertTrue(dataKeyService.isKeyLoaded("alice"));
+
+        String encrypted = dataKeyService.encrypt("alice", "s3cret");
+        assertEquals("s3cret", dataKeyService.decrypt("alice", encrypted));
+        verify(userDataKeyRepository, times(1)).insertIfAbsent(eq("alice"), any(byte[].class));
+        verify(userDataKeyRepository, times(2)).findWrappedKey("alice");
+    }
+
+    @Test
+    public void testCache_IsBounded() {
+        dataKeyService.encrypt("alice", "a");
+        dataKeyService.encrypt("bob", "b");
+        dataKeyService.encrypt("carol", "c");
+
+        assertEquals(2, dataKeyService.size());
+    }
+
+    @Test
+    public void testDecrypt_KeysArePerUser() {
+        String encrypted = dataKeyService.encrypt("alice", "s3cret");
+        dataKeyService.encrypt("bob", "other");
+
+        assertThrows(IllegalStateException.class, () -> dataKeyService.decrypt("bob", encrypted));
+    }
+
+    @Test
+    public void testDecrypt_LegacyPlaintextPassesThrough() {
+        assertEquals("plain", dataKeyService.decrypt("alice", "plain"));
+        assertNull(dataKeyService.decrypt("alice", null));
+        verifyNoInteractions(userDataKeyRepository);
+    }
+
+    @Test
+    public void testDecrypt_MissingKeyFails() {
+        String encrypted = dataKeyService.encrypt("alice", "s3cret");
+        DataKeyService restarted = new DataKeyService(mock(MasterKey.class), mock(UserDataKeyRepository.class), 10);
+
+        assertThrows(IllegalStateException.class, () -> restarted.decrypt("alice", encrypted));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.app.service;
+
+import com.example.app.exception.HashingCapacityExceededException;
+import com.example.app.model.User;
+import com.example.app.repository.UserRepository;
+import com.example.app.util.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class PasswordRehashServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PasswordRehashService passwordRehashService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        passwordRehashService = new PasswordRehashService(userRepository, passwordHasher, transactionTemplate,
+                meterRegistry);
+    }
+
+    @Test
+    public void testRehash_UpdatesStoredHash() {
+        User user = user("legacyhash");
+        when(passwordHasher.hashPassword("password")).thenReturn("$pbkdf2-sha256$i=1$salt$hash");
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(user));
+
+        passwordRehashService.rehash(1L, "password", "legacyhash");
+
+        assertEquals("$pbkdf2-sha256$i=1$salt$hash", user.getPassword());
+        assertEquals(1.0, meterRegistry.get("auth.password.rehashed").counter().count());
+    }
+
+    @Test
+    public void testRehash_ConcurrentPasswordChangeWins() {
+        User user = user("$pbkdf2-sha256$i=1$salt$changed");
+        when(passwordHasher.hashPassword("password")).thenReturn("$pbkdf2-sha256$i=1$salt$hash");
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(user));
+
+        passwordRehashService.rehash(1L, "password", "legacyhash");
+
+        assertEquals("$pbkdf2-sha256$i=1$salt$changed", user.getPassword());
+        assertEquals(0.0, meterRegistry.get("auth.password.rehashed").counter().count());
+    }
+
+    @Test
+    public void testRehash_SkippedWhenHashingPoolIsSaturated() {
+        when(passwordHasher.hashPassword("password")).thenThrow(new HashingCapacityExceededException("busy"));
+
+        passwordRehashService.rehash(1L, "password", "legacyhash");
+
+        verify(userRepository, never()).findByIdForUpdate(anyLong());
+    }
+
+    @Test
+    public void testCountLegacyAccounts_PublishedAsGauge() {
+        when(userRepository.countLegacyPasswordHashes()).thenReturn(42L);
+        assertTrue(Double.isNaN(meterRegistry.get("auth.password.legacy").gauge().value()));
+
+        passwordRehashService.countLegacyAccounts();
+
+        assertEquals(42.0, meterRegistry.get("auth.password.legacy").gauge().value());
+    }
+
+    private static User user(String hash) {
+        User user = new User(1L);
+        user.setPassword(hash);
+        return user;
+    }
+}
@@ -1,21 +1,53 @@
 package com.example.app.service;
 
+import com.example.app.dto.CursorPage;
+import com.example.app.dto.ImportResult;
+import com.example.app.dto.ServiceSummary;
+import com.example.app.exception.InvalidArchiveException;
+import com.example.app.exception.ResourceConflictException;
 import com.example.app.exception.ResourceNotFoundException;
 import com.example.app.model.ServicePassword;
 import com.example.app.model.User;
 import com.example.app.repository.ServicePasswordRepository;
 import com.example.app.repository.UserRepository;
+import com.example.app.util.HashingExecutor;
 import com.example.app.util.PasswordHasher;
+import com.example.app.util.ServicePasswordImportReader;
+import com.example.app.util.VaultArchive;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -38,6 +70,12 @@ public class PasswordServiceTest {
     @Mock
     private PasswordHasher passwordHasher;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     private User user;
     private ServicePassword servicePassword;
 
@@ -58,13 +96,32 @@ public class PasswordServiceTest {
     public void testAddPassword_ValidUser() {
         when(userRepository.findByUsername("testuser")).thenReturn(user);
         when(passwordHasher.validatePassword(anyString(), anyString(), anyString())).thenReturn(true);
-        when(servicePasswordRepository.save(any(ServicePassword.class))).thenReturn(servicePassword);
+        when(servicePasswordRepository.saveAndFlush(any(ServicePassword.class))).thenReturn(servicePassword);
 
         ServicePassword result = passwordService.addPassword("testuser", "password", servicePassword);
 
         assertThat(result).isNotNull();
         assertThat(result.getServiceName()).isEqualTo("testservice");
-        verify(servicePasswordRepository).save(any(ServicePassword.class));
+        verify(servicePasswordRepository).saveAndFlush(any(ServicePassword.class));
+    }
+
+    @Test
+    public void testAddPassword_DuplicateService_Conflict() {
+        when(userRepository.findByUsername("testuser")).thenReturn(user);
+        when(passwordHasher.validatePassword(anyString(), anyString(), anyString())).thenReturn(true);
+        when(servicePasswordRepository.saveAndFlush(any(ServicePassword.class))).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException(), ServicePassword.UNIQUE_SERVICE_NAME)));
+
+        assertThrows(ResourceConflictException.class, () -> passwordService.addPassword("testuser", "password", servicePassword));
+    }
+
+    @Test
+    public void testAddPassword_OtherIntegrityViolation_Rethrown() {
+        when(userRepository.findByUsername("testuser")).thenReturn(user);
+        when(passwordHasher.validatePassword(anyString(), anyString(), anyString())).thenReturn(true);
+        when(servicePasswordRepository.saveAndFlush(any(ServicePassword.class))).thenThrow(new DataIntegrityViolationException("too long"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> passwordService.addPassword("testuser", "password", servicePassword));
     }
 
     @Test
@@ -111,7 +168,7 @@ public class PasswordServiceTest {
     public void testDeletePassword_ValidUser() {
         when(userRepository.findByUsername("testuser")).thenReturn(user);
         when(passwordHasher.validatePassword(anyString(), anyString(), anyString())).thenReturn(true);
-        when(servicePasswordRepository.findByUsernameAndServiceName("testuser", "testservice")).thenReturn(Optional.of(servicePassword));
+        when(servicePasswordRepository.deleteByUsernameAndServiceName("testuser", "testservice")).thenReturn(1);
 
         passwordService.deletePassword("testuser", "password", "testservice");
 
@@ -122,10 +179,175 @@ public class PasswordServiceTest {
     public void testDeletePassword_UserNotFound() {
         when(passwordHasher.validatePassword(anyString(), anyString(), anyString())).thenReturn(true);
         when(userRepository.findByUsername("testuser")).thenReturn(user);
-        when(servicePasswordRepository.findByUsernameAndServiceName("testuser", "testservice")).thenReturn(Optional.empty());
+        when(servicePasswordRepository.deleteByUsernameAndServiceName("testuser", "testservice")).thenReturn(0);
 
         assertThrows(ResourceNotFoundException.class, () -> {
             passwordService.deletePassword("testuser", "password", "testservice");
         });
     }
+
+    @Test
+    public void testGetPasswordPage_FullPageHasNextCursor() {
+        when(servicePasswordRepository.findByUsernameAndIdGreaterThanOrderByIdAsc("testuser", 0L, PageRequest.of(0, 1)))
+                .thenReturn(Arrays.asList(servicePassword));
+
+        CursorPage<ServicePassword> page = passwordService.getPasswordPage("testuser", null, 1);
+
+        assertThat(page.getItems()).containsExactly(servicePassword);
+        assertThat(page.getNextCursor()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testGetPasswordPage_LastPageHasNoCursor() {
+        when(servicePasswordRepository.findByUsernameAndIdGreaterThanOrderByIdAsc("testuser", 1L, PageRequest.of(0, 10)))
+                .thenReturn(Arrays.asList(servicePassword));
+
+        CursorPage<ServicePassword> page = passwordService.getPasswordPage("testuser", 1L, 10);
+
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void testForEachPassword_DetachesEachRow() {
+        when(servicePasswordRepository.streamByUsername("testuser")).thenReturn(Stream.of(servicePassword));
+
+        List<ServicePassword> seen = new ArrayList<>();
+        passwordService.forEachPassword("testuser", seen::add);
+
+        assertThat(seen).containsExactly(servicePassword);
+        verify(entityManager).detach(servicePassword);
+    }
+
+    @Test
+    public void testImportPasswords_SkipsInvalidAndDuplicateRows() {
+        runTransactionCallbacks();
+        // Stands in for the unique constraint, which is the only duplicate check: "existing" is
+        // already stored and row 3 repeats row 1
+        doAnswer(invocation -> {
+            ServicePassword row = invocation.getArgument(0);
+            if (row.getServiceName().equals("existing") || row.getPassword().equals("again")) {
+                throw new DataIntegrityViolationException("duplicate key",
+                        new ConstraintViolationException("duplicate key", new SQLException(), ServicePassword.UNIQUE_SERVICE_NAME));
+            }
+            return null;
+        }).when(entityManager).persist(any(ServicePassword.class));
+
+        ImportResult result = passwordService.importPasswords("testuser", Arrays.asList(
+                new ServicePasswordImportReader.Row(1, "mail", "secret"),
+                new ServicePasswordImportReader.Row(2, "existing", "secret"),
+                new ServicePasswordImportReader.Row(3, "mail", "again"),
+                new ServicePasswordImportReader.Row(4, "", "secret"),
+                new ServicePasswordImportReader.Row(5, "bank", null)).iterator());
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ImportResult.RowError::getRow).containsExactly(4, 5, 2, 3);
+        assertThat(result.getErrors()).extracting(ImportResult.RowError::getMessage)
+                .filteredOn(message -> message.startsWith("Service already exists")).hasSize(2);
+        verify(servicePasswordRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    public void testImportPasswords_FlushesEveryBatch() {
+        runTransactionCallbacks();
+
+        List<ServicePasswordImportReader.Row> rows = new ArrayList<>();
+        for (int i = 1; i <= 1200; i++) {
+            rows.add(new ServicePasswordImportReader.Row(i, "service" + i, "secret"));
+        }
+
+        ImportResult result = passwordService.importPasswords("testuser", rows.iterator());
+
+        assertThat(result.getImported()).isEqualTo(1200);
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    public void testImportPasswords_RejectedBatchReportsOnlyOffendingRows() {
+        // The batch fails, then each row is retried alone and only "bank" fails again
+        when(transactionTemplate.execute(any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(null)
+                .thenThrow(new DataIntegrityViolationException("duplicate key",
+                        new ConstraintViolationException("duplicate key", new SQLException(), ServicePassword.UNIQUE_SERVICE_NAME)))
+                .thenReturn(null);
+
+        ImportResult result = passwordService.importPasswords("testuser", Arrays.asList(
+                new ServicePasswordImportReader.Row(1, "mail", "secret"),
+                new ServicePasswordImportReader.Row(2, "bank", "secret"),
+                new ServicePasswordImportReader.Row(3, "shop", "secret")).iterator());
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ImportResult.RowError::getRow).containsExactly(2);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Service already exists for this user");
+        verify(transactionTemplate, times(4)).execute(any());
+    }
+
+    @Test
+    public void testImportPasswords_MalformedInputStopsImport() {
+        runTransactionCallbacks();
+
+        ServicePasswordImportReader rows = ServicePasswordImportReader.csv(new ByteArrayInputStream(
+                "mail,secret\nbank,\"unterminated\n".getBytes(StandardCharsets.UTF_8)));
+
+        ImportResult result = passwordService.importPasswords("testuser", rows);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(result.getErrors().get(0).getMessage()).contains("row 2");
+    }
+
+    @Test
+    public void testImportPasswords_CorruptArchiveSegmentRemovesStoredRows() throws IOException {
+        runTransactionCallbacks();
+        Set<String> importIds = new HashSet<>();
+        AtomicLong stored = new AtomicLong();
+        doAnswer(invocation -> {
+            importIds.add((String) ReflectionTestUtils.getField(invocation.<ServicePassword>getArgument(0), "importId"));
+            stored.incrementAndGet();
+            return null;
+        }).when(entityManager).persist(any(ServicePassword.class));
+
+        HashingExecutor hashingExecutor = new HashingExecutor(1, 4, 30_000, new SimpleMeterRegistry());
+        // Random passwords keep gzip from squeezing the rows into the first 64 KB segment
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SequenceWriter writer = new ObjectMapper().writer().writeValuesAsArray(
+                new GZIPOutputStream(VaultArchive.encrypt(out, "passphrase".toCharArray(), hashingExecutor)))) {
+            for (int i = 0; i < 5000; i++) {
+                writer.write(Map.of("serviceName", "service" + i, "servicePassword", UUID.randomUUID().toString()));
+            }
+        }
+        byte[] archive = out.toByteArray();
+        archive[archive.length - 1] ^= 1;
+
+        ServicePasswordImportReader rows = ServicePasswordImportReader.json(new GZIPInputStream(
+                VaultArchive.decrypt(new ByteArrayInputStream(archive), "passphrase".toCharArray(), hashingExecutor)), new ObjectMapper());
+
+        assertThrows(InvalidArchiveException.class, () -> passwordService.importPasswords("testuser", rows));
+        // At least one batch had been committed before the bad segment was reached
+        assertThat(stored.get()).isGreaterThanOrEqualTo(500);
+        // Every stored row carries the same import id, and that is all the rollback needs
+        assertThat(importIds).hasSize(1).doesNotContainNull();
+        verify(servicePasswordRepository).deleteByUsernameAndImportId("testuser", importIds.iterator().next());
+    }
+
+    private void runTransactionCallbacks() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    public void testGetServiceSummaries() {
+        List<ServiceSummary> summaries = Arrays.asList(new ServiceSummary(1L, "testservice"));
+        when(servicePasswordRepository.findSummariesByUsername("testuser")).thenReturn(summaries);
+
+        assertThat(passwordService.getServiceSummaries("testuser")).isSameAs(summaries);
+    }
+
+    @Test
+    public void testGetPassword_NotFound() {
+        when(servicePasswordRepository.findByUsernameAndServiceName("testuser", "missing")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> passwordService.getPassword("testuser", "missing"));
+    }
 }
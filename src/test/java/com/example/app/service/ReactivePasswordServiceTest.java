@@ -0,0 +1,102 @@
+package com.example.app.service;
+
+import com.example.app.dto.CursorPage;
+import com.example.app.exception.ResourceNotFoundException;
+import com.example.app.model.ServicePassword;
+import com.example.app.model.ServicePasswordRow;
+import com.example.app.repository.ReactiveServicePasswordRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactivePasswordServiceTest {
+
+    @InjectMocks
+    private ReactivePasswordService reactivePasswordService;
+
+    @Mock
+    private ReactiveServicePasswordRepository reactiveServicePasswordRepository;
+
+    @Mock
+    private DataKeyService dataKeyService;
+
+    @Test
+    public void testAddPassword_EncryptsBeforeInsert() {
+        when(dataKeyService.isKeyLoaded("testUser")).thenReturn(true);
+        when(dataKeyService.encrypt("testUser", "servicePassword")).thenReturn("ciphertext");
+        when(reactiveServicePasswordRepository.insert("testUser", "serviceName", "ciphertext"))
+                .thenReturn(Mono.just(new ServicePasswordRow(7L, "testUser", "serviceName", "ciphertext")));
+
+        ServicePassword result = reactivePasswordService.addPassword("testUser", "serviceName", "servicePassword").block();
+
+        assertThat(result.getId()).isEqualTo(7L);
+        assertThat(result.getPassword()).isEqualTo("servicePassword");
+        verify(dataKeyService, never()).loadKey(anyString());
+    }
+
+    @Test
+    public void testGetPasswords_LoadsMissingKeyFirst() {
+        when(dataKeyService.isKeyLoaded("testUser")).thenReturn(false);
+        when(reactiveServicePasswordRepository.findByUsername("testUser"))
+                .thenReturn(Flux.just(new ServicePasswordRow(1L, "testUser", "serviceName", "ciphertext")));
+        when(dataKeyService.decrypt("testUser", "ciphertext")).thenReturn("servicePassword");
+
+        List<ServicePassword> result = reactivePasswordService.getPasswords("testUser").collectList().block();
+
+        assertThat(result).extracting(ServicePassword::getPassword).containsExactly("servicePassword");
+        verify(dataKeyService).loadKey("testUser");
+    }
+
+    @Test
+    public void testGetPassword_NotFound() {
+        when(dataKeyService.isKeyLoaded("testUser")).thenReturn(true);
+        when(reactiveServicePasswordRepository.findByUsernameAndServiceName("testUser", "missing")).thenReturn(Mono.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> reactivePasswordService.getPassword("testUser", "missing").block());
+    }
+
+    @Test
+    public void testGetPasswordPage_FullPageHasNextCursor() {
+        when(dataKeyService.isKeyLoaded("testUser")).thenReturn(true);
+        when(reactiveServicePasswordRepository.findPageByUsername("testUser", 0L, 2)).thenReturn(Flux.just(
+                new ServicePasswordRow(3L, "testUser", "a", "c1"),
+                new ServicePasswordRow(5L, "testUser", "b", "c2")));
+        when(dataKeyService.decrypt(eq("testUser"), anyString())).thenReturn("plain");
+
+        CursorPage<ServicePassword> page = reactivePasswordService.getPasswordPage("testUser", null, 2).block();
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getNextCursor()).isEqualTo(5L);
+    }
+
+    @Test
+    public void testUpdatePassword_ServicePasswordNotFound() {
+        when(dataKeyService.isKeyLoaded("testUser")).thenReturn(true);
+        when(dataKeyService.encrypt("testUser", "newPassword")).thenReturn("ciphertext");
+        when(reactiveServicePasswordRepository.updateEncryptedPasswordByUsernameAndServiceName("testUser", "missing", "ciphertext"))
+                .thenReturn(Mono.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> reactivePasswordService.updatePassword("testUser", "missing", "newPassword").block());
+    }
+
+    @Test
+    public void testDeletePassword_NotFound() {
+        when(reactiveServicePasswordRepository.deleteByUsernameAndServiceName("testUser", "missing")).thenReturn(Mono.just(0L));
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> reactivePasswordService.deletePassword("testUser", "missing").block());
+    }
+}
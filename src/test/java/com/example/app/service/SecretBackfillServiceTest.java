@@ -0,0 +1,58 @@
+package com.example.app.service;
+
+import com.example.app.model.ServicePassword;
+import com.example.app.repository.ServicePasswordRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SecretBackfillServiceTest {
+
+    @Mock
+    private ServicePasswordRepository servicePasswordRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private SecretBackfillService secretBackfillService;
+
+    @Test
+    public void testEncryptLegacySecrets_MarksEveryPageDirtyAndFollowsKeyset() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        ServicePassword first = legacy(3L, "one");
+        ServicePassword second = legacy(8L, "two");
+        when(servicePasswordRepository.findNotMatchingAfter(anyLong(), eq("gcm1:%"), any(Pageable.class)))
+                .thenReturn(Arrays.asList(first, second))
+                .thenReturn(Collections.emptyList());
+
+        secretBackfillService.encryptLegacySecrets();
+
+        verify(first).setPassword("one");
+        verify(second).setPassword("two");
+        verify(servicePasswordRepository).findNotMatchingAfter(eq(0L), eq("gcm1:%"), any(Pageable.class));
+        verify(servicePasswordRepository).findNotMatchingAfter(eq(8L), eq("gcm1:%"), any(Pageable.class));
+    }
+
+    private static ServicePassword legacy(Long id, String password) {
+        ServicePassword servicePassword = new ServicePassword();
+        servicePassword.setId(id);
+        servicePassword.setPassword(password);
+        return spy(servicePassword);
+    }
+}
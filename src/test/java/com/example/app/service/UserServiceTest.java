@@ -1,15 +1,24 @@
 package com.example.app.service;
 
+import com.example.app.dto.CursorPage;
+import com.example.app.dto.UserSummary;
 import com.example.app.exception.ResourceNotFoundException;
 import com.example.app.model.User;
 import com.example.app.repository.UserRepository;
 import com.example.app.util.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,6 +36,20 @@ public class UserServiceTest {
     @Mock
     private PasswordHasher passwordHasher;
 
+    @Mock
+    private AuthTokenService authTokenService;
+
+    @Mock
+    private PasswordRehashService passwordRehashService;
+
+    @Spy
+    private CredentialCache credentialCache = new CredentialCache(100, 60);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private AuthMetrics authMetrics = new AuthMetrics(meterRegistry);
+
     private User user;
 
     @BeforeEach
@@ -40,16 +63,39 @@ public class UserServiceTest {
     @Test
     void registerUser_ShouldSaveUser() {
         when(passwordHasher.hashPassword("password")).thenReturn("hashedPassword");
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
         User result = userService.registerUser(user);
 
         assertNotNull(result);
         assertEquals(user.getUsername(), result.getUsername());
-        verify(userRepository).save(user);
+        verify(userRepository).saveAndFlush(user);
+        verify(userRepository, never()).existsByUsername(any());
         System.out.println("registerUser_ShouldSaveUser passed successfully.");
     }
 
+    // Corner Case: Username taken, detected by the unique constraint on insert
+    @Test
+    void registerUser_UsernameTaken_ShouldThrowException() {
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException(), User.UNIQUE_USERNAME)));
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            userService.registerUser(user);
+        });
+
+        assertEquals("Username already taken", exception.getMessage());
+    }
+
+    @Test
+    void registerUser_OtherConstraintViolation_ShouldPropagate() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("value too long",
+                new ConstraintViolationException("value too long", new SQLException(), null));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class, () -> userService.registerUser(user)));
+    }
+
     @Test
     void getUserByUsername_ValidUser_ShouldReturnUser() {
         String password = "testPassword";
@@ -127,4 +173,131 @@ public class UserServiceTest {
         assertEquals("User not found", exception.getMessage());
         System.out.println("deleteUser_NonExistingUser_ShouldThrowException passed successfully.");
     }
+
+    @Test
+    void validateUser_RepeatedCheck_ShouldHitCache() {
+        when(userRepository.findByUsername("testUser")).thenReturn(user);
+        when(passwordHasher.validatePassword("testUser", "password", user.getPassword())).thenReturn(true);
+
+        assertTrue(userService.validateUser("testUser", "password"));
+        assertTrue(userService.validateUser("testUser", "password"));
+
+        verify(passwordHasher, times(1)).validatePassword("testUser", "password", user.getPassword());
+        assertEquals(1, credentialCache.getHits());
+        assertEquals(1, authChecks("hit"));
+        assertEquals(1, authChecks("miss"));
+    }
+
+    @Test
+    void validateUser_PasswordChangedElsewhere_ShouldNotHitCache() {
+        User changed = new User();
+        changed.setUsername("testUser");
+        changed.setPassword("changedHash");
+        when(userRepository.findByUsername("testUser")).thenReturn(user).thenReturn(changed);
+        when(passwordHasher.validatePassword("testUser", "password", "hashedPassword")).thenReturn(true);
+
+        assertTrue(userService.validateUser("testUser", "password"));
+        // The stored hash changed, e.g. on another node, so the old password is checked again
+        assertFalse(userService.validateUser("testUser", "password"));
+
+        assertEquals(0, credentialCache.getHits());
+        verify(passwordHasher).validatePassword("testUser", "password", "changedHash");
+    }
+
+    @Test
+    void validateUser_WrongPassword_ShouldNotBeCached() {
+        when(userRepository.findByUsername("testUser")).thenReturn(user);
+        when(passwordHasher.validatePassword("testUser", "wrongPassword", user.getPassword())).thenReturn(false);
+
+        assertFalse(userService.validateUser("testUser", "wrongPassword"));
+        assertFalse(userService.validateUser("testUser", "wrongPassword"));
+
+        verify(userRepository, times(2)).findByUsername("testUser");
+        assertEquals(2, authChecks("fail"));
+    }
+
+    @Test
+    void updateUser_ShouldInvalidateCachedCredential() {
+        User updatedUser = new User();
+        updatedUser.setUsername("testUser");
+        updatedUser.setPassword("newPassword");
+
+        when(userRepository.findByUsername("testUser")).thenReturn(user);
+        when(passwordHasher.validatePassword("testUser", "password", "hashedPassword")).thenReturn(true);
+        when(passwordHasher.hashPassword("newPassword")).thenReturn("newHashedPassword");
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        assertTrue(userService.validateUser("testUser", "password"));
+        userService.updateUser("testUser", "password", updatedUser);
+
+        assertFalse(userService.validateUser("testUser", "password"));
+        verify(authTokenService).revoke(user);
+    }
+
+    @Test
+    void deleteUser_ShouldRevokeTokens() {
+        when(userRepository.findByUsername("testUser")).thenReturn(user);
+        when(passwordHasher.validatePassword("testUser", "password", "hashedPassword")).thenReturn(true);
+
+        userService.deleteUser("testUser", "password");
+
+        verify(authTokenService).revoke(user);
+        verify(userRepository).delete(user);
+    }
+
+    @Test
+    void login_ValidUser_ShouldIssueToken() {
+        when(userRepository.findByUsername("testUser")).thenReturn(user);
+        when(passwordHasher.validatePassword("testUser", "password", user.getPassword())).thenReturn(true);
+        when(authTokenService.issueToken(user)).thenReturn("signedtoken");
+
+        assertEquals("signedtoken", userService.login("testUser", "password"));
+    }
+
+    @Test
+    void login_IncorrectPassword_ShouldThrowException() {
+        when(userRepository.findByUsername("testUser")).thenReturn(user);
+        when(passwordHasher.validatePassword("testUser", "wrongPassword", user.getPassword())).thenReturn(false);
+
+        assertThrows(SecurityException.class, () -> userService.login("testUser", "wrongPassword"));
+        verify(authTokenService, never()).issueToken(any(User.class));
+    }
+
+    @Test
+    void getUsers_FullPage_ShouldReturnNextCursor() {
+        when(userRepository.findSummariesAfter(0L, PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(new UserSummary(1L, "a"), new UserSummary(2L, "b")));
+
+        CursorPage<UserSummary> page = userService.getUsers(null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(2L, page.getNextCursor());
+    }
+
+    @Test
+    void validateUser_LegacyHash_ShouldScheduleRehash() {
+        user.setId(1L);
+        when(userRepository.findByUsername("testUser")).thenReturn(user);
+        when(passwordHasher.validatePassword("testUser", "password", "hashedPassword")).thenReturn(true);
+        when(passwordHasher.needsRehash("hashedPassword")).thenReturn(true);
+
+        assertTrue(userService.validateUser("testUser", "password"));
+
+        verify(passwordRehashService).rehash(1L, "password", "hashedPassword");
+    }
+
+    @Test
+    void validateUser_CurrentHash_ShouldNotRehash() {
+        when(userRepository.findByUsername("testUser")).thenReturn(user);
+        when(passwordHasher.validatePassword("testUser", "password", "hashedPassword")).thenReturn(true);
+        when(passwordHasher.needsRehash("hashedPassword")).thenReturn(false);
+
+        assertTrue(userService.validateUser("testUser", "password"));
+
+        verifyNoInteractions(passwordRehashService);
+    }
+
+    private double authChecks(String result) {
+        return meterRegistry.get("auth.checks").tag("method", "password").tag("result", result).counter().count();
+    }
 }
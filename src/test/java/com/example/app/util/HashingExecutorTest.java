@@ -0,0 +1,148 @@
+package com.example.app.util;
+
+import com.example.app.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private HashingExecutor hashingExecutor;
+    private ExecutorService callers;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hashingExecutor = new HashingExecutor(1, 1, 1000, meterRegistry);
+        callers = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        callers.shutdownNow();
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    public void testExecuteReturnsResult() {
+        assertEquals("hashed", hashingExecutor.execute(() -> "hashed"));
+        assertEquals(1, meterRegistry.get("auth.hashing.wait").timer().count());
+    }
+
+    @Test
+    public void testExecutePropagatesRuntimeException() {
+        assertThrows(IllegalArgumentException.class, () -> hashingExecutor.execute(() -> {
+            throw new IllegalArgumentException("bad hash");
+        }));
+    }
+
+    @Test
+    public void testRejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        // One task occupies the only worker, a second fills the queue
+        callers.submit(() -> hashingExecutor.execute(() -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> hashingExecutor.execute(() -> true));
+        waitForQueueDepth(1);
+
+        assertThrows(HashingCapacityExceededException.class, () -> hashingExecutor.execute(() -> true));
+        assertEquals(1.0, meterRegistry.get("auth.hashing.rejected").counter().count());
+
+        release.countDown();
+    }
+
+    @Test
+    public void testRejectsWhenWaitExceedsLimit() throws Exception {
+        HashingExecutor impatientExecutor = new HashingExecutor(1, 1, 50, meterRegistry);
+        try {
+            assertThrows(HashingCapacityExceededException.class, () -> impatientExecutor.execute(() -> {
+                Thread.sleep(1000);
+                return true;
+            }));
+        } finally {
+            impatientExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectsUpFrontWhenQueuedWorkExceedsMaxWait() throws Exception {
+        HashingExecutor impatientExecutor = new HashingExecutor(1, 10, 100, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            // Teaches the executor that a hash takes about 60 ms
+            impatientExecutor.execute(() -> {
+                Thread.sleep(60);
+                return true;
+            });
+            callers.submit(() -> impatientExecutor.execute(() -> {
+                started.countDown();
+                return release.await(5, TimeUnit.SECONDS);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            ExecutorService queued = Executors.newFixedThreadPool(2);
+            queued.submit(() -> impatientExecutor.execute(() -> true));
+            queued.submit(() -> impatientExecutor.execute(() -> true));
+            waitForQueueDepth(impatientExecutor, 2);
+
+            long start = System.nanoTime();
+            assertThrows(HashingCapacityExceededException.class, () -> impatientExecutor.execute(() -> true));
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50));
+            queued.shutdownNow();
+        } finally {
+            release.countDown();
+            impatientExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSkipsQueuedTaskWhoseCallerTimedOut() throws Exception {
+        HashingExecutor impatientExecutor = new HashingExecutor(1, 1, 50, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+        try {
+            callers.submit(() -> impatientExecutor.execute(() -> {
+                started.countDown();
+                return release.await(5, TimeUnit.SECONDS);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(HashingCapacityExceededException.class, () -> impatientExecutor.execute(() -> ran.getAndSet(true)));
+            assertEquals(0, impatientExecutor.getQueueDepth());
+
+            release.countDown();
+            Thread.sleep(100);
+            assertFalse(ran.get());
+        } finally {
+            release.countDown();
+            impatientExecutor.shutdown();
+        }
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        waitForQueueDepth(hashingExecutor, depth);
+    }
+
+    private static void waitForQueueDepth(HashingExecutor hashingExecutor, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hashingExecutor.getQueueDepth() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
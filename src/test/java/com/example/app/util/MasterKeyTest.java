@@ -0,0 +1,69 @@
+package com.example.app.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MasterKeyTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCreate_LoadReturnsSameKey() throws Exception {
+        Path keystore = tempDir.resolve("keys/master.p12");
+        MasterKey created = MasterKey.create(keystore, "pw".toCharArray(), "vault-master");
+        assertTrue(Files.exists(keystore));
+
+        SecretKey dataKey = newKey();
+        byte[] wrapped = created.wrap(dataKey);
+
+        MasterKey reloaded = MasterKey.load(keystore, "pw".toCharArray(), "vault-master");
+        assertArrayEquals(dataKey.getEncoded(), reloaded.unwrap(wrapped).getEncoded());
+    }
+
+    @Test
+    public void testLoad_UnknownAliasFails() throws Exception {
+        Path keystore = tempDir.resolve("master.p12");
+        MasterKey.create(keystore, "pw".toCharArray(), "vault-master");
+
+        assertThrows(IllegalStateException.class,
+                () -> MasterKey.load(keystore, "pw".toCharArray(), "other"));
+    }
+
+    @Test
+    public void testLoad_MissingKeystoreFails() {
+        assertThrows(NoSuchFileException.class,
+                () -> MasterKey.load(tempDir.resolve("missing.p12"), "pw".toCharArray(), "vault-master"));
+    }
+
+    @Test
+    public void testCreate_NeverReplacesExistingKeystore() throws Exception {
+        Path keystore = tempDir.resolve("master.p12");
+        MasterKey.create(keystore, "pw".toCharArray(), "vault-master");
+
+        assertThrows(FileAlreadyExistsException.class,
+                () -> MasterKey.create(keystore, "pw".toCharArray(), "vault-master"));
+    }
+
+    @Test
+    public void testUnwrap_WrongMasterKeyFails() throws Exception {
+        byte[] wrapped = new MasterKey(newKey()).wrap(newKey());
+
+        assertThrows(IllegalStateException.class, () -> new MasterKey(newKey()).unwrap(wrapped));
+    }
+
+    private static SecretKey newKey() throws Exception {
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(256);
+        return generator.generateKey();
+    }
+}
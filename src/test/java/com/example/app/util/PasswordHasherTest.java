@@ -0,0 +1,120 @@
+package com.example.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTest {
+
+    private final Pbkdf2PasswordHasher pbkdf2 = new Pbkdf2PasswordHasher(1000);
+    private final ScryptPasswordHasher scrypt = new ScryptPasswordHasher(10, 8, 1);
+    private final Argon2PasswordHasher argon2 = new Argon2PasswordHasher(1024, 1, 1);
+    private final Sha256PasswordHasher sha256 = new Sha256PasswordHasher();
+
+    @Test
+    public void testPbkdf2RoundTrip() {
+        String hash = pbkdf2.hashPassword("password");
+
+        assertTrue(hash.startsWith("$pbkdf2-sha256$i=1000$"));
+        assertTrue(pbkdf2.validatePassword("testuser", "password", hash));
+        assertFalse(pbkdf2.validatePassword("testuser", "wrongpassword", hash));
+    }
+
+    @Test
+    public void testScryptRoundTrip() {
+        String hash = scrypt.hashPassword("password");
+
+        assertTrue(hash.startsWith("$scrypt$ln=10,r=8,p=1$"));
+        assertTrue(scrypt.validatePassword("testuser", "password", hash));
+        assertFalse(scrypt.validatePassword("testuser", "wrongpassword", hash));
+    }
+
+    @Test
+    public void testArgon2RoundTrip() {
+        String hash = argon2.hashPassword("password");
+
+        assertTrue(hash.startsWith("$argon2id$v=19,m=1024,t=1,p=1$"));
+        assertTrue(argon2.validatePassword("testuser", "password", hash));
+        assertFalse(argon2.validatePassword("testuser", "wrongpassword", hash));
+    }
+
+    @Test
+    public void testHashesAreSalted() {
+        assertNotEquals(pbkdf2.hashPassword("password"), pbkdf2.hashPassword("password"));
+    }
+
+    @Test
+    public void testValidatesWithStoredParameters() {
+        String hash = pbkdf2.hashPassword("password");
+
+        assertTrue(pbkdf2.stronger().validatePassword("testuser", "password", hash));
+    }
+
+    @Test
+    public void testMalformedHashIsRejected() {
+        assertFalse(pbkdf2.validatePassword("testuser", "password", "$pbkdf2-sha256$i=x$abc$def"));
+        assertFalse(pbkdf2.validatePassword("testuser", "password", "$pbkdf2-sha256$abc"));
+    }
+
+    @Test
+    public void testDelegatingHasherVerifiesEveryFormat() {
+        DelegatingPasswordHasher hasher = new DelegatingPasswordHasher(argon2, sha256, pbkdf2, scrypt);
+
+        assertTrue(hasher.hashPassword("password").startsWith("$argon2id$"));
+        assertTrue(hasher.validatePassword("testuser", "password", pbkdf2.hashPassword("password")));
+        assertTrue(hasher.validatePassword("testuser", "password", scrypt.hashPassword("password")));
+        assertTrue(hasher.validatePassword("testuser", "password", argon2.hashPassword("password")));
+        assertTrue(hasher.validatePassword("testuser", "password", sha256.hashPassword("password")));
+        assertFalse(hasher.validatePassword("testuser", "password", "$unknown$x=1$abc$def"));
+    }
+
+    @Test
+    public void testNeedsRehash() {
+        DelegatingPasswordHasher hasher = new DelegatingPasswordHasher(pbkdf2, sha256, scrypt);
+
+        assertTrue(hasher.needsRehash(sha256.hashPassword("password")));
+        assertTrue(hasher.needsRehash(scrypt.hashPassword("password")));
+        assertFalse(hasher.needsRehash(pbkdf2.stronger().hashPassword("password")));
+        assertFalse(hasher.needsRehash(pbkdf2.hashPassword("password")));
+    }
+
+    @Test
+    public void testNeedsRehash_WeakerParameters() {
+        assertTrue(pbkdf2.stronger().needsRehash(pbkdf2.hashPassword("password")));
+        assertTrue(scrypt.stronger().needsRehash(scrypt.hashPassword("password")));
+        assertTrue(argon2.stronger().needsRehash(argon2.hashPassword("password")));
+        assertFalse(argon2.needsRehash(argon2.stronger().hashPassword("password")));
+        assertTrue(pbkdf2.needsRehash("$pbkdf2-sha256$x$abc$def"));
+    }
+
+    @Test
+    public void testLegacySha256Hash() {
+        assertEquals("5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8", sha256.hashPassword("password"));
+    }
+
+    @Test
+    public void testLegacySha256Validation() {
+        String stored = "5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8";
+
+        assertTrue(sha256.validatePassword("testuser", "password", stored));
+        assertTrue(sha256.validatePassword("testuser", "password", stored.toUpperCase()));
+        assertFalse(sha256.validatePassword("testuser", "wrongpassword", stored));
+        assertFalse(sha256.validatePassword("testuser", "password", stored.substring(2)));
+        assertFalse(sha256.validatePassword("testuser", "password", "zz" + stored.substring(2)));
+        assertFalse(sha256.validatePassword("testuser", "password", null));
+    }
+
+    @Test
+    public void testHexEncoding() {
+        assertEquals("00017f80ff", Hex.encode(new byte[]{0, 1, 0x7f, (byte) 0x80, (byte) 0xff}));
+        assertTrue(Hex.equals(new byte[]{0, 1, 0x7f, (byte) 0x80, (byte) 0xff}, "00017F80ff"));
+        assertFalse(Hex.equals(new byte[]{0x0a}, "0\u00e0"));
+    }
+
+    @Test
+    public void testCalibrationNeverGoesBelowFloor() {
+        Pbkdf2PasswordHasher calibrated = (Pbkdf2PasswordHasher) PasswordHasherCalibrator.calibrate(pbkdf2, 5);
+
+        assertTrue(calibrated.getIterations() >= pbkdf2.getIterations());
+    }
+}
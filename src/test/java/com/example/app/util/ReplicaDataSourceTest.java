@@ -0,0 +1,117 @@
+package com.example.app.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReplicaDataSourceTest {
+
+    private static final String LAG_QUERY = "select lag_ms from replication_lag";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaDataSource replicaDataSource;
+
+    @BeforeEach
+    public void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        new JdbcTemplate(replica).execute("create table replication_lag (lag_ms bigint)");
+        new JdbcTemplate(replica).execute("insert into replication_lag values (0)");
+        replicaDataSource = new ReplicaDataSource(primary, List.of(replica), LAG_QUERY, 1000, 0, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        replicaDataSource.close();
+        new JdbcTemplate(primary).execute("drop all objects");
+        new JdbcTemplate(replica).execute("drop all objects");
+    }
+
+    @Test
+    public void testGetConnection_ReplicaNotCheckedYet_UsesPrimary() {
+        assertThat(nodeOf(replicaDataSource)).isEqualTo("primary");
+    }
+
+    @Test
+    public void testGetConnection_ReplicaWithinLag_UsesReplica() {
+        replicaDataSource.checkLag();
+
+        assertThat(nodeOf(replicaDataSource)).isEqualTo("replica");
+        assertThat(meterRegistry.get("app.datasource.replica.available").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void testGetConnection_ReplicaTooFarBehind_FallsBackToPrimary() {
+        replicaDataSource.checkLag();
+        new JdbcTemplate(replica).update("update replication_lag set lag_ms = 5000");
+        replicaDataSource.checkLag();
+
+        assertThat(nodeOf(replicaDataSource)).isEqualTo("primary");
+        assertThat(meterRegistry.get("app.datasource.replica.lag").gauge().value()).isEqualTo(5000.0);
+    }
+
+    @Test
+    public void testGetConnection_LagCheckFails_FallsBackToPrimary() {
+        replicaDataSource.checkLag();
+        new JdbcTemplate(replica).execute("drop table replication_lag");
+        replicaDataSource.checkLag();
+
+        assertThat(nodeOf(replicaDataSource)).isEqualTo("primary");
+    }
+
+    @Test
+    public void testMayLagBy_OnlyReplicasInRotationCount() {
+        assertThat(replicaDataSource.mayLagBy(0)).isFalse();
+
+        new JdbcTemplate(replica).update("update replication_lag set lag_ms = 300");
+        replicaDataSource.checkLag();
+        assertThat(replicaDataSource.mayLagBy(0)).isTrue();
+        assertThat(replicaDataSource.mayLagBy(300)).isFalse();
+
+        // Too far behind: reads go to the primary, which never lags
+        new JdbcTemplate(replica).update("update replication_lag set lag_ms = 5000");
+        replicaDataSource.checkLag();
+        assertThat(replicaDataSource.mayLagBy(0)).isFalse();
+    }
+
+    @Test
+    public void testReadOnlyTransaction_RoutedToReplica() {
+        replicaDataSource.checkLag();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        transaction.setReadOnly(true);
+        String readNode = transaction.execute(status -> nodeOf(dataSource));
+        transaction.setReadOnly(false);
+        String writeNode = transaction.execute(status -> nodeOf(dataSource));
+
+        assertThat(readNode).isEqualTo("replica");
+        assertThat(writeNode).isEqualTo("primary");
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute("create table node (name varchar(20))");
+        new JdbcTemplate(dataSource).update("insert into node values (?)", name);
+        return dataSource;
+    }
+
+    private static String nodeOf(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForObject("select name from node", String.class);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SecretCipherTest {
+
+    @Test
+    public void testEncrypt_RoundTripsFromManyThreads() throws Exception {
+        SecretKey key = newKey();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                String secret = "secret-" + i;
+                results.add(executor.submit(() -> SecretCipher.decrypt(key, SecretCipher.encrypt(key, secret))));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals("secret-" + i, results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDecrypt_TamperedValueFailsWithoutBreakingLaterCalls() throws Exception {
+        SecretKey key = newKey();
+        byte[] raw = Base64.getDecoder().decode(SecretCipher.encrypt(key, "secret").substring(SecretCipher.PREFIX.length()));
+        raw[raw.length - 1] ^= 1;
+
+        assertThrows(IllegalStateException.class,
+                () -> SecretCipher.decrypt(key, SecretCipher.PREFIX + Base64.getEncoder().encodeToString(raw)));
+        assertEquals("secret", SecretCipher.decrypt(key, SecretCipher.encrypt(key, "secret")));
+    }
+
+    @Test
+    public void testEncrypt_SameSecretGetsFreshNonce() throws Exception {
+        SecretKey key = newKey();
+
+        assertNotEquals(SecretCipher.encrypt(key, "secret"), SecretCipher.encrypt(key, "secret"));
+    }
+
+    private static SecretKey newKey() throws Exception {
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(256);
+        return generator.generateKey();
+    }
+}
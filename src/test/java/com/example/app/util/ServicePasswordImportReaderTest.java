@@ -0,0 +1,83 @@
+package com.example.app.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServicePasswordImportReaderTest {
+
+    @Test
+    public void testJson_ReadsEachObject() throws IOException {
+        String json = "[{\"serviceName\":\"mail\",\"servicePassword\":\"secret\"},"
+                + "{\"serviceName\":\"bank\",\"servicePassword\":null}]";
+
+        List<ServicePasswordImportReader.Row> rows = readAll(ServicePasswordImportReader.json(stream(json), new ObjectMapper()));
+
+        assertEquals(2, rows.size());
+        assertEquals("mail", rows.get(0).getServiceName());
+        assertEquals("secret", rows.get(0).getServicePassword());
+        assertEquals(2, rows.get(1).getRowNumber());
+        assertNull(rows.get(1).getServicePassword());
+    }
+
+    @Test
+    public void testJson_RejectsNonArray() {
+        ServicePasswordImportReader reader = assertDoesNotThrow(() ->
+                ServicePasswordImportReader.json(stream("{\"serviceName\":\"mail\"}"), new ObjectMapper()));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, reader::hasNext);
+        assertTrue(exception.getMessage().contains("row 1"));
+    }
+
+    @Test
+    public void testCsv_SkipsHeaderAndHandlesQuoting() throws IOException {
+        String csv = "serviceName,servicePassword\r\n"
+                + "mail,secret\r\n"
+                + "\"bank, main\",\"say \"\"hi\"\"\"\r\n"
+                + "\n"
+                + "notes,\"line1\nline2\"\n";
+
+        List<ServicePasswordImportReader.Row> rows = readAll(ServicePasswordImportReader.csv(stream(csv)));
+
+        assertEquals(3, rows.size());
+        assertEquals("bank, main", rows.get(1).getServiceName());
+        assertEquals("say \"hi\"", rows.get(1).getServicePassword());
+        assertEquals("line1\nline2", rows.get(2).getServicePassword());
+    }
+
+    @Test
+    public void testCsv_WrongFieldCountYieldsEmptyRow() throws IOException {
+        List<ServicePasswordImportReader.Row> rows = readAll(ServicePasswordImportReader.csv(stream("mail,secret,extra\n")));
+
+        assertEquals(1, rows.size());
+        assertNull(rows.get(0).getServiceName());
+        assertNull(rows.get(0).getServicePassword());
+    }
+
+    @Test
+    public void testCsv_UnterminatedQuoteIsMalformed() {
+        ServicePasswordImportReader reader = ServicePasswordImportReader.csv(stream("mail,\"secret\n"));
+
+        assertThrows(IllegalArgumentException.class, reader::hasNext);
+    }
+
+    private static List<ServicePasswordImportReader.Row> readAll(ServicePasswordImportReader reader) throws IOException {
+        List<ServicePasswordImportReader.Row> rows = new ArrayList<>();
+        try (ServicePasswordImportReader r = reader) {
+            r.forEachRemaining(rows::add);
+        }
+        return rows;
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.app.util;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.example.app.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SlowQueryLogTest {
+
+    private static final String SLOW_QUERY = "select sleep(?) from dual where ? = ?";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private DataSource database;
+
+    @BeforeEach
+    public void setUp() {
+        database = new DriverManagerDataSource("jdbc:h2:mem:slow-query;DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(database).execute("create alias if not exists sleep for 'java.lang.Thread.sleep'");
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logger.detachAppender(appender);
+        new JdbcTemplate(database).execute("drop all objects");
+    }
+
+    @Test
+    public void testSlowStatement_LoggedWithSqlBindsAndCaller() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SlowQueryLog(50, 1.0, meterRegistry).wrap(database));
+
+        jdbcTemplate.queryForList(SLOW_QUERY, 100, 1, 1);
+
+        assertThat(appender.list).hasSize(1);
+        assertThat(appender.list.get(0).getFormattedMessage())
+                .contains("3 binds", "SlowQueryLogTest.testSlowStatement_LoggedWithSqlBindsAndCaller", SLOW_QUERY);
+        assertThat(meterRegistry.get("app.db.slow.queries").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void testFastStatement_NotReported() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SlowQueryLog(1000, 1.0, meterRegistry).wrap(database));
+
+        jdbcTemplate.queryForList(SLOW_QUERY, 0, 1, 1);
+
+        assertThat(appender.list).isEmpty();
+        assertThat(meterRegistry.find("app.db.slow.queries").counter()).isNull();
+    }
+
+    @Test
+    public void testSampling_CountsEverySlowStatementButLogsNone() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SlowQueryLog(50, 0.0, meterRegistry).wrap(database));
+
+        jdbcTemplate.queryForList(SLOW_QUERY, 100, 1, 1);
+
+        assertThat(appender.list).isEmpty();
+        assertThat(meterRegistry.get("app.db.slow.queries").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void testRepositoryMethodInterceptor_NamesRepositoryMethod() throws Throwable {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SlowQueryLog(50, 1.0, meterRegistry).wrap(database));
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.getMethod()).thenReturn(UserRepository.class.getMethod("findByUsername", String.class));
+        when(invocation.proceed()).thenAnswer(call -> jdbcTemplate.queryForList(SLOW_QUERY, 100, 1, 1));
+
+        new SlowQueryLog.RepositoryMethodInterceptor(UserRepository.class).invoke(invocation);
+
+        assertThat(meterRegistry.get("app.db.slow.queries").tag("caller", "UserRepository.findByUsername").counter().count())
+                .isEqualTo(1.0);
+    }
+}
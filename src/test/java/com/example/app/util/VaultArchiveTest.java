@@ -0,0 +1,123 @@
+package com.example.app.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class VaultArchiveTest {
+
+    private static final char[] PASSPHRASE = "correct horse battery staple".toCharArray();
+    private static final HashingExecutor HASHING = new HashingExecutor(1, 4, 30_000, new SimpleMeterRegistry());
+
+    @Test
+    public void testRoundTrip_SpansSeveralSegments() throws IOException {
+        byte[] plaintext = new byte[VaultArchive.SEGMENT_SIZE * 3 + 123];
+        new Random(42).nextBytes(plaintext);
+
+        byte[] archive = encrypt(plaintext);
+
+        assertArrayEquals(plaintext, decrypt(archive, PASSPHRASE));
+    }
+
+    @Test
+    public void testRoundTrip_EmptyAndExactSegment() throws IOException {
+        assertArrayEquals(new byte[0], decrypt(encrypt(new byte[0]), PASSPHRASE));
+
+        byte[] exact = new byte[VaultArchive.SEGMENT_SIZE];
+        Arrays.fill(exact, (byte) 7);
+        assertArrayEquals(exact, decrypt(encrypt(exact), PASSPHRASE));
+    }
+
+    @Test
+    public void testDecrypt_WrongPassphraseFails() throws IOException {
+        byte[] archive = encrypt("secret".getBytes());
+
+        IOException exception = assertThrows(IOException.class, () -> decrypt(archive, "wrong".toCharArray()));
+        assertTrue(exception.getMessage().contains("passphrase"));
+    }
+
+    @Test
+    public void testDecrypt_TruncationAtSegmentBoundaryFails() throws IOException {
+        byte[] archive = encrypt(new byte[VaultArchive.SEGMENT_SIZE * 2 + 10]);
+        // Header plus the first complete segment: a well-formed prefix that was never sealed as final
+        int firstSegmentEnd = 32 + 4 + VaultArchive.SEGMENT_SIZE + 16;
+
+        assertThrows(IOException.class, () -> decrypt(Arrays.copyOf(archive, firstSegmentEnd), PASSPHRASE));
+    }
+
+    @Test
+    public void testAbort_ClosesWithoutSealing() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (VaultArchive.EncryptingOutputStream archive = VaultArchive.encrypt(out, PASSPHRASE, HASHING)) {
+            archive.write(new byte[VaultArchive.SEGMENT_SIZE + 10]);
+            archive.abort();
+            archive.write("dropped".getBytes());
+        }
+
+        assertThrows(VaultArchive.CorruptArchiveException.class, () -> decrypt(out.toByteArray(), PASSPHRASE));
+    }
+
+    @Test
+    public void testDecrypt_TamperedByteFails() throws IOException {
+        byte[] archive = encrypt("secret".getBytes());
+        archive[archive.length - 1] ^= 1;
+
+        assertThrows(IOException.class, () -> decrypt(archive, PASSPHRASE));
+    }
+
+    @Test
+    public void testDecrypt_RejectsIterationCountAboveCapWithoutDerivingKey() throws IOException {
+        byte[] archive = encrypt("secret".getBytes());
+        // Iteration count follows the magic, version and salt
+        ByteBuffer.wrap(archive).putInt(4 + 1 + 16, VaultArchive.MAX_ITERATIONS + 1);
+        HashingExecutor hashingExecutor = mock(HashingExecutor.class);
+
+        IOException exception = assertThrows(VaultArchive.CorruptArchiveException.class, () -> {
+            try (InputStream in = VaultArchive.decrypt(new ByteArrayInputStream(archive), PASSPHRASE, hashingExecutor)) {
+                in.read();
+            }
+        });
+        assertTrue(exception.getMessage().contains("key parameters"));
+        verifyNoInteractions(hashingExecutor);
+    }
+
+    @Test
+    public void testDecrypt_RejectsForeignInput() {
+        assertThrows(IOException.class, () -> decrypt("[{\"serviceName\":\"mail\"}]".getBytes(), PASSPHRASE));
+    }
+
+    private static byte[] encrypt(byte[] plaintext) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream archive = VaultArchive.encrypt(out, PASSPHRASE, HASHING)) {
+            // Uneven writes so segment boundaries fall mid-write
+            for (int i = 0; i < plaintext.length; i += 1000) {
+                archive.write(plaintext, i, Math.min(1000, plaintext.length - i));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] decrypt(byte[] archive, char[] passphrase) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = VaultArchive.decrypt(new ByteArrayInputStream(archive), passphrase, HASHING)) {
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,106 @@
+-- Lookup latency of the hot ServicePassword/User queries as the tables grow.
+--
+-- Run against a scratch Postgres database (never production):
+--   psql -d password_manager_bench -f src/test/resources/db/benchmark/service_password_lookup.sql
+--
+-- For each size the tables are filled with synthetic rows (1,000 users, vault size growing
+-- with the table), then the three repository queries are timed with EXPLAIN ANALYZE,
+-- first without and then with the indexes from V2__unique_lookup_indexes.sql.
+
+\timing off
+\set ON_ERROR_STOP on
+
+DROP SCHEMA IF EXISTS lookup_bench CASCADE;
+CREATE SCHEMA lookup_bench;
+SET search_path = lookup_bench;
+
+CREATE TABLE app_user (
+    id       BIGSERIAL PRIMARY KEY,
+    password VARCHAR(255),
+    username VARCHAR(255)
+);
+
+CREATE TABLE service_password (
+    id           BIGSERIAL PRIMARY KEY,
+    password     VARCHAR(255),
+    service_name VARCHAR(255),
+    username     VARCHAR(255) NOT NULL
+);
+
+INSERT INTO app_user (username, password)
+SELECT 'user' || u, md5(u::text)
+FROM generate_series(1, 1000) AS u;
+
+CREATE FUNCTION grow_to(target BIGINT) RETURNS VOID AS $$
+DECLARE
+    current_rows BIGINT;
+BEGIN
+    SELECT count(*) INTO current_rows FROM service_password;
+    INSERT INTO service_password (username, service_name, password)
+    SELECT 'user' || (n % 1000 + 1), 'service' || (n / 1000), md5(n::text)
+    FROM generate_series(current_rows, target - 1) AS n;
+    ANALYZE service_password;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION time_lookups(label TEXT) RETURNS TABLE (step TEXT, query TEXT, plan TEXT, millis NUMERIC) AS $$
+DECLARE
+    started TIMESTAMPTZ;
+    plan_line TEXT;
+BEGIN
+    -- UserRepository.findByUsername
+    started := clock_timestamp();
+    FOR i IN 1..200 LOOP
+        PERFORM * FROM app_user WHERE username = 'user' || (i * 5);
+    END LOOP;
+    EXECUTE 'EXPLAIN SELECT * FROM app_user WHERE username = ''user500''' INTO plan_line;
+    RETURN QUERY SELECT label, 'findByUsername(User)', plan_line,
+        round(extract(epoch FROM clock_timestamp() - started) * 1000 / 200, 3);
+
+    -- ServicePasswordRepository.findByUsernameAndServiceName
+    started := clock_timestamp();
+    FOR i IN 1..200 LOOP
+        PERFORM * FROM service_password WHERE username = 'user' || (i * 5) AND service_name = 'service1';
+    END LOOP;
+    EXECUTE 'EXPLAIN SELECT * FROM service_password WHERE username = ''user500'' AND service_name = ''service1''' INTO plan_line;
+    RETURN QUERY SELECT label, 'findByUsernameAndServiceName', plan_line,
+        round(extract(epoch FROM clock_timestamp() - started) * 1000 / 200, 3);
+
+    -- ServicePasswordRepository.findByUsername
+    started := clock_timestamp();
+    FOR i IN 1..20 LOOP
+        PERFORM * FROM service_password WHERE username = 'user' || (i * 50);
+    END LOOP;
+    EXECUTE 'EXPLAIN SELECT * FROM service_password WHERE username = ''user500''' INTO plan_line;
+    RETURN QUERY SELECT label, 'findByUsername(ServicePassword)', plan_line,
+        round(extract(epoch FROM clock_timestamp() - started) * 1000 / 20, 3);
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TABLE results (rows BIGINT, step TEXT, query TEXT, plan TEXT, millis NUMERIC);
+
+CREATE FUNCTION run_step(target BIGINT) RETURNS VOID AS $$
+BEGIN
+    PERFORM grow_to(target);
+
+    DROP INDEX IF EXISTS uk_app_user_username;
+    DROP INDEX IF EXISTS uk_service_password_username_service_name;
+    INSERT INTO results SELECT target, t.* FROM time_lookups('no index') t;
+
+    CREATE UNIQUE INDEX uk_app_user_username ON app_user (username);
+    CREATE UNIQUE INDEX uk_service_password_username_service_name ON service_password (username, service_name);
+    ANALYZE app_user;
+    ANALYZE service_password;
+    INSERT INTO results SELECT target, t.* FROM time_lookups('indexed') t;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT run_step(100000);
+SELECT run_step(1000000);
+SELECT run_step(10000000);
+
+SELECT rows, query, step, millis AS avg_ms, plan
+FROM results
+ORDER BY query, rows, step DESC;
+
+DROP SCHEMA lookup_bench CASCADE;